@@ -0,0 +1,82 @@
+#!/bin/sh
+# ----------------------------------------------------------------------------
+# Measures time-to-first-request of the gateway for each startup mode.
+#
+# Time is taken from process launch until GET /actuator/health gets an HTTP
+# answer (any status, health is DOWN without Redis), repeated RUNS times per
+# mode; the median is reported.
+#
+# Build the artifacts first. AOT, CDS and native builds are fixed to the
+# profile they were built for (kubernetes by default), so build them for the
+# profile being measured:
+#   jar     ./mvnw -DskipTests package
+#   aot     ./mvnw -DskipTests -Paot -Daot.profiles=local package
+#   cds     ./mvnw -DskipTests -Paot,cds -Daot.profiles=local -Dcds.training.profiles=local package
+#   native  ./mvnw -DskipTests -Pnative -Daot.profiles=local native:compile
+#
+# The cds mode runs with AOT enabled, so its archive must come from the
+# -Paot,cds build above, which trains with AOT enabled as well.
+#
+# Requires GNU date (coreutils) for millisecond timestamps, and a sleep that
+# accepts fractional seconds (GNU coreutils, BSD and busybox all do).
+#
+# Usage: scripts/measure-startup.sh [jar|aot|cds|native ...]
+# Environment: RUNS (default 5), PORT (default 8080), PROFILE (default local)
+# ----------------------------------------------------------------------------
+
+set -e
+
+cd "$(dirname "$0")/.."
+
+RUNS=${RUNS:-5}
+PORT=${PORT:-8080}
+PROFILE=${PROFILE:-local}
+JAR=$(ls target/Api-Gateway-*.jar 2>/dev/null | grep -v original | head -n 1)
+MODES=${*:-jar aot cds native}
+
+case "$(date +%3N)" in
+  *N*) echo "GNU date is required for millisecond timestamps (install coreutils, e.g. as gdate)" >&2; exit 1 ;;
+esac
+
+now_ms() {
+  date +%s%3N
+}
+
+command_for() {
+  case "$1" in
+    jar)    echo "java -jar $JAR" ;;
+    aot)    echo "java -Dspring.aot.enabled=true -jar $JAR" ;;
+    cds)    echo "java -XX:SharedArchiveFile=target/cds/application.jsa -Dspring.aot.enabled=true -jar target/cds/$(basename "$JAR")" ;;
+    native) echo "target/Api-Gateway" ;;
+    *)      echo "Unknown mode $1" >&2; exit 1 ;;
+  esac
+}
+
+measure_once() {
+  start=$(now_ms)
+  $1 --server.port="$PORT" --spring.profiles.active="$PROFILE" > target/startup-run.log 2>&1 &
+  pid=$!
+  until [ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT/actuator/health")" != "000" ]; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "Gateway exited, see target/startup-run.log" >&2
+      exit 1
+    fi
+    sleep 0.01
+  done
+  end=$(now_ms)
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  echo $((end - start))
+}
+
+for mode in $MODES; do
+  cmd=$(command_for "$mode")
+  results=""
+  i=0
+  while [ "$i" -lt "$RUNS" ]; do
+    results="$results $(measure_once "$cmd")"
+    i=$((i + 1))
+  done
+  median=$(echo "$results" | tr ' ' '\n' | sed '/^$/d' | sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }')
+  echo "$mode: median ${median}ms over $RUNS runs (${results# })"
+done
@@ -5,13 +5,17 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.core.env.Environment;
 
+import com.pawlanet.api.gateway.config.NativeRuntimeHints;
 import com.pawlanet.api.gateway.registry.ServiceRegistry;
 
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.scheduler.Schedulers;
 
 @SpringBootApplication
+@ImportRuntimeHints(NativeRuntimeHints.class)
 @Slf4j
 public class ApiGatewayApplication {
 	@Autowired
@@ -38,11 +42,13 @@ public class ApiGatewayApplication {
 	                log.info("Registered Service: {} -> {}", name, service.getFullUrl());
 	            });
 	            
+	            // Health checks block, run them in the background so they don't delay startup
 	            log.info("Performing initial health checks...");
-	            serviceRegistry.getAllServices().forEach((name, service) -> {
-	                boolean healthy = serviceRegistry.isHealthy(name);
-	                log.info("Service {} health: {}", name, healthy ? "UP AND rUNNING" : " Not available");
-	            });
+	            serviceRegistry.getAllServices().forEach((name, service) ->
+	                Schedulers.boundedElastic().schedule(() -> {
+	                    boolean healthy = serviceRegistry.isHealthy(name);
+	                    log.info("Service {} health: {}", name, healthy ? "UP AND rUNNING" : " Not available");
+	                }));
 	            
 	            log.info("Gateway is ready to handle requests!");
 	        };
@@ -0,0 +1,330 @@
+package com.pawlanet.api.gateway.config;
+
+import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.cloud.gateway.filter.factory.GatewayFilterFactory;
+import org.springframework.cloud.gateway.handler.predicate.RoutePredicateFactory;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionRouteLocator;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+
+/**
+ * Reloads routes, {@link GatewayProperties} and circuit-breaker settings from a
+ * watched YAML file or Redis key without restarting the gateway.
+ * The whole document, routes included, is validated before anything is applied;
+ * routes are swapped through a route refresh, so in-flight requests finish on the
+ * route they matched.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "gateway.reload", name = "enabled", havingValue = "true")
+public class GatewayConfigReloader {
+
+    private final org.springframework.cloud.gateway.config.GatewayProperties routeProperties;
+    private final GatewayProperties gatewayProperties;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final List<RoutePredicateFactory<?>> predicateFactories;
+    private final List<GatewayFilterFactory<?>> filterFactories;
+    private final ObjectProvider<ReactiveStringRedisTemplate> redisTemplate;
+    private final ConfigurationService configurationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final Map<String, CircuitBreakerSettings> appliedCircuitBreakers = new HashMap<>();
+    private String appliedContent;
+
+    @PostConstruct
+    public void init() {
+        GatewayProperties.Reload reload = gatewayProperties.getReload();
+        if (!StringUtils.hasText(reload.getFile()) && !StringUtils.hasText(reload.getRedisKey())) {
+            log.warn("Config reload enabled but neither gateway.reload.file nor gateway.reload.redis-key is set");
+            return;
+        }
+        long interval = reload.getPollIntervalMs();
+        scheduler.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Watching gateway config from {}", StringUtils.hasText(reload.getFile())
+            ? "file " + reload.getFile() : "Redis key " + reload.getRedisKey());
+    }
+
+    private void poll() {
+        String source = StringUtils.hasText(gatewayProperties.getReload().getFile()) ? "file" : "redis";
+        String content;
+        try {
+            content = "file".equals(source) ? readFile() : readRedisKey();
+        } catch (Exception e) {
+            log.warn("Failed to read gateway config from {}: {}", source, e.getMessage());
+            meterRegistry.counter("gateway.config.reload.failures", "source", source, "stage", "read").increment();
+            return;
+        }
+        if (content == null || content.equals(appliedContent)) {
+            return;
+        }
+        reload(content, source);
+    }
+
+    private String readFile() throws IOException {
+        Path path = Path.of(gatewayProperties.getReload().getFile());
+        return Files.exists(path) ? Files.readString(path, StandardCharsets.UTF_8) : null;
+    }
+
+    private String readRedisKey() {
+        ReactiveStringRedisTemplate template = redisTemplate.getIfAvailable();
+        if (template == null) {
+            throw new IllegalStateException("Redis is not configured");
+        }
+        return template.opsForValue().get(gatewayProperties.getReload().getRedisKey())
+            .block(Duration.ofSeconds(2));
+    }
+
+    /**
+     * Validate and apply a reload document; nothing is applied if any part is invalid
+     */
+    public synchronized void reload(String content, String source) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        String stage = "validate";
+        try {
+            Binder binder = binder(content);
+            List<RouteDefinition> routes = binder
+                .bind("spring.cloud.gateway.server.webflux.routes", Bindable.listOf(RouteDefinition.class))
+                .orElse(null);
+            // Bind onto a copy of the live values so sections missing from the document are kept
+            GatewayProperties properties = binder
+                .bind("gateway", Bindable.ofInstance(copyOf(gatewayProperties)))
+                .orElse(null);
+            Map<String, CircuitBreakerSettings> circuitBreakers = binder
+                .bind("resilience4j.circuitbreaker.instances",
+                    Bindable.mapOf(String.class, CircuitBreakerSettings.class))
+                .orElse(Map.of());
+
+            if (routes != null) {
+                validateRoutes(routes);
+                buildRoutes(routes);
+            }
+            // Building the configs validates thresholds before anything is swapped
+            Map<String, CircuitBreakerConfig> configs = new HashMap<>();
+            circuitBreakers.forEach((name, settings) -> {
+                if (!settings.equals(appliedCircuitBreakers.get(name))) {
+                    configs.put(name, settings.apply(baseConfig(name)));
+                }
+            });
+
+            stage = "apply";
+            if (properties != null) {
+                // Section objects are swapped by reference, readers see either the old or the new one
+                BeanUtils.copyProperties(properties, gatewayProperties, "reload");
+            }
+            configs.forEach(this::applyCircuitBreaker);
+            appliedCircuitBreakers.putAll(circuitBreakers);
+            if (routes != null) {
+                routeProperties.setRoutes(routes);
+                eventPublisher.publishEvent(new RefreshRoutesEvent(this));
+            }
+            appliedContent = content;
+            log.info("Reloaded gateway config from {}: {} routes, {} circuit breakers changed",
+                source, routes != null ? routes.size() : "unchanged", configs.size());
+        } catch (Exception e) {
+            outcome = "failure";
+            // Remember the bad document so it is not retried on every poll
+            appliedContent = content;
+            meterRegistry.counter("gateway.config.reload.failures", "source", source, "stage", stage).increment();
+            log.error("Rejected gateway config from {}: {}", source, e.getMessage());
+        } finally {
+            sample.stop(meterRegistry.timer("gateway.config.reload", "source", source, "outcome", outcome));
+        }
+    }
+
+    /**
+     * Copy with its own section objects, binding into it never touches the live ones
+     */
+    private GatewayProperties copyOf(GatewayProperties source) {
+        GatewayProperties copy = new GatewayProperties();
+        for (PropertyDescriptor descriptor : BeanUtils.getPropertyDescriptors(GatewayProperties.class)) {
+            if (descriptor.getReadMethod() == null || descriptor.getWriteMethod() == null) {
+                continue;
+            }
+            Object value = ReflectionUtils.invokeMethod(descriptor.getReadMethod(), source);
+            if (value instanceof Map<?, ?> map) {
+                value = new LinkedHashMap<>(map);
+            } else if (value != null && descriptor.getPropertyType().getDeclaringClass() == GatewayProperties.class) {
+                Object section = BeanUtils.instantiateClass(descriptor.getPropertyType());
+                BeanUtils.copyProperties(value, section);
+                value = section;
+            }
+            ReflectionUtils.invokeMethod(descriptor.getWriteMethod(), copy, value);
+        }
+        return copy;
+    }
+
+    private Binder binder(String content) throws IOException {
+        List<PropertySource<?>> sources = new YamlPropertySourceLoader()
+            .load("gateway-reload", new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8)));
+        return new Binder(ConfigurationPropertySources.from(sources));
+    }
+
+    private void validateRoutes(List<RouteDefinition> routes) {
+        Set<String> ids = new HashSet<>();
+        for (RouteDefinition route : routes) {
+            if (route.getId() == null || !ids.add(route.getId())) {
+                throw new IllegalArgumentException("Route id missing or duplicated: " + route.getId());
+            }
+            if (route.getUri() == null || route.getUri().getScheme() == null) {
+                throw new IllegalArgumentException("Route " + route.getId() + " has no valid uri");
+            }
+            if (route.getPredicates().isEmpty()) {
+                throw new IllegalArgumentException("Route " + route.getId() + " has no predicates");
+            }
+        }
+    }
+
+    /**
+     * Build every route the way the route refresh will, so unknown factories and bad
+     * arguments reject the document here. A route that fails in the refresh itself is
+     * only logged and the old routes stay, after the rest of the document was applied
+     */
+    private void buildRoutes(List<RouteDefinition> routes) {
+        org.springframework.cloud.gateway.config.GatewayProperties candidate =
+            new org.springframework.cloud.gateway.config.GatewayProperties();
+        candidate.setDefaultFilters(routeProperties.getDefaultFilters());
+        candidate.setFailOnRouteDefinitionError(true);
+        RouteDefinitionRouteLocator locator = new RouteDefinitionRouteLocator(() -> Flux.fromIterable(routes),
+            new ArrayList<>(predicateFactories), new ArrayList<>(filterFactories), candidate, configurationService);
+        locator.getRoutes().then().block();
+    }
+
+    private CircuitBreakerConfig baseConfig(String name) {
+        return circuitBreakerRegistry.find(name)
+            .map(CircuitBreaker::getCircuitBreakerConfig)
+            .orElse(circuitBreakerRegistry.getDefaultConfig());
+    }
+
+    private void applyCircuitBreaker(String name, CircuitBreakerConfig config) {
+        Optional<CircuitBreaker> existing = circuitBreakerRegistry.find(name);
+        if (existing.isPresent()) {
+            CircuitBreaker current = existing.get();
+            CircuitBreaker replacement = CircuitBreaker.of(name, config, current.getTags());
+            // Carry the state over, a breaker open on a failing upstream must stay open.
+            // Done before the swap so listeners attached on replacement see no transition
+            restoreState(replacement, current.getState());
+            // Calls already holding the old breaker finish against it
+            circuitBreakerRegistry.replace(name, replacement);
+            log.info("Replaced circuit breaker {} in state {} with reloaded settings, call metrics reset",
+                name, current.getState());
+        } else {
+            circuitBreakerRegistry.circuitBreaker(name, config);
+            log.info("Created circuit breaker {} from reloaded settings", name);
+        }
+    }
+
+    private void restoreState(CircuitBreaker circuitBreaker, CircuitBreaker.State state) {
+        switch (state) {
+            case OPEN -> circuitBreaker.transitionToOpenState();
+            case HALF_OPEN -> {
+                // CLOSED cannot go to HALF_OPEN directly
+                circuitBreaker.transitionToOpenState();
+                circuitBreaker.transitionToHalfOpenState();
+            }
+            case FORCED_OPEN -> circuitBreaker.transitionToForcedOpenState();
+            case DISABLED -> circuitBreaker.transitionToDisabledState();
+            case METRICS_ONLY -> circuitBreaker.transitionToMetricsOnlyState();
+            default -> {
+                // New breakers start CLOSED
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Subset of resilience4j instance settings that can be changed at runtime,
+     * unset values keep the current configuration
+     */
+    @Data
+    public static class CircuitBreakerSettings {
+        private Integer slidingWindowSize;
+        private Integer minimumNumberOfCalls;
+        private Integer permittedNumberOfCallsInHalfOpenState;
+        private Boolean automaticTransitionFromOpenToHalfOpenEnabled;
+        private Duration waitDurationInOpenState;
+        private Float failureRateThreshold;
+        private Float slowCallRateThreshold;
+        private Duration slowCallDurationThreshold;
+
+        CircuitBreakerConfig apply(CircuitBreakerConfig base) {
+            CircuitBreakerConfig.Builder builder = CircuitBreakerConfig.from(base);
+            if (slidingWindowSize != null) {
+                builder.slidingWindowSize(slidingWindowSize);
+            }
+            if (minimumNumberOfCalls != null) {
+                builder.minimumNumberOfCalls(minimumNumberOfCalls);
+            }
+            if (permittedNumberOfCallsInHalfOpenState != null) {
+                builder.permittedNumberOfCallsInHalfOpenState(permittedNumberOfCallsInHalfOpenState);
+            }
+            if (automaticTransitionFromOpenToHalfOpenEnabled != null) {
+                builder.automaticTransitionFromOpenToHalfOpenEnabled(automaticTransitionFromOpenToHalfOpenEnabled);
+            }
+            if (waitDurationInOpenState != null) {
+                builder.waitDurationInOpenState(waitDurationInOpenState);
+            }
+            if (failureRateThreshold != null) {
+                builder.failureRateThreshold(failureRateThreshold);
+            }
+            if (slowCallRateThreshold != null) {
+                builder.slowCallRateThreshold(slowCallRateThreshold);
+            }
+            if (slowCallDurationThreshold != null) {
+                builder.slowCallDurationThreshold(slowCallDurationThreshold);
+            }
+            return builder.build();
+        }
+    }
+}
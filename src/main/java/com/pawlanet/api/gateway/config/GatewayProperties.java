@@ -7,7 +7,7 @@ import org.springframework.stereotype.Component;
 
 import lombok.Data;
 
-@Component
+@Component("pawlanetGatewayProperties") // "gatewayProperties" is Spring Cloud Gateway's own bean
 @ConfigurationProperties(prefix = "gateway")
 @Data
 public class GatewayProperties {
@@ -15,6 +15,14 @@ public class GatewayProperties {
     private Redis redis = new Redis();
     private RateLimit rateLimit = new RateLimit();
     private Security security = new Security();
+    private LoadShedding loadShedding = new LoadShedding();
+    private CircuitBreakerSync circuitBreakerSync = new CircuitBreakerSync();
+    private OutlierDetection outlierDetection = new OutlierDetection();
+    private Reload reload = new Reload();
+    private Idempotency idempotency = new Idempotency();
+    private Mirror mirror = new Mirror();
+    private ETag etag = new ETag();
+    private LoadBalancing loadBalancing = new LoadBalancing();
     private Map<String, Service> services;
     
     @Data
@@ -40,6 +48,84 @@ public class GatewayProperties {
         private String[] publicPaths = {"/api/v1/auth/**", "/actuator/**"};
     }
     
+    @Data
+    public static class LoadShedding {
+        private boolean enabled = true;
+        private long probeIntervalMs = 100;
+        private long lagThresholdMs = 50; // lag at which LOW priority traffic is shed
+        private int pendingTasksThreshold = 1000; // per event loop
+        private int retryAfterSeconds = 2;
+        private String defaultPriority = "NORMAL";
+    }
+    
+    @Data
+    public static class CircuitBreakerSync {
+        private boolean enabled = false;
+        private String channel = "gateway:circuit-breaker";
+        private String instanceId; // defaults to a random id per replica
+        private int confirmationFailures = 1; // local failures needed to adopt a peer's OPEN
+        private int openQuorum = 2; // peers reporting OPEN that adopt without local failures
+        private long peerReportTtlMs = 30000;
+        private int maxHalfOpenProbers = 1;
+        private long probeLeaseMs = 15000;
+    }
+    
+    @Data
+    public static class OutlierDetection {
+        private boolean enabled = true;
+        private int consecutive5xx = 5;
+        private int consecutiveConnectFailures = 3;
+        private long latencyThresholdMs = 2000; // absolute EWMA latency that counts as an outlier
+        private double latencyOutlierFactor = 3.0; // EWMA relative to the median of sibling instances
+        private int minLatencySamples = 20;
+        private long baseEjectionMs = 30000;
+        private long maxEjectionMs = 300000;
+        private int maxEjectionPercent = 50;
+    }
+    
+    @Data
+    public static class Reload {
+        private boolean enabled = false;
+        private String file; // local YAML file with routes, gateway.* and resilience4j settings
+        private String redisKey; // alternatively a Redis key holding the same YAML
+        private long pollIntervalMs = 5000;
+    }
+    
+    @Data
+    public static class Idempotency {
+        private long ttlSeconds = 86400; // how long completed responses are replayed
+        private long lockTtlSeconds = 30; // reservation lifetime if the first attempt never completes
+        private long waitTimeoutMs = 10000; // how long concurrent duplicates wait for the first attempt
+        private long pollIntervalMs = 100;
+        private int maxBodyBytes = 256 * 1024; // larger responses are not stored
+    }
+    
+    @Data
+    public static class Mirror {
+        private int maxConnections = 50; // separate pool from the primary upstream client
+        private int maxConcurrent = 100; // mirrored requests in flight
+        private long maxBufferedBytes = 16 * 1024 * 1024; // request bodies held for mirroring
+        private int maxBodyBytes = 1024 * 1024; // larger requests are not mirrored
+        private long timeoutMs = 5000;
+        private int ioThreads = 1;
+    }
+    
+    @Data
+    public static class ETag {
+        private int maxEntries = 10000;
+        private long freshnessMs = 5000; // 304s are answered by the gateway only within this window
+        private int maxBodyBytes = 512 * 1024; // larger responses get no gateway ETag
+    }
+    
+    @Data
+    public static class LoadBalancing {
+        private boolean enabled = true; // spread route traffic over all registry instances of a service
+        private String strategy = "ROUND_ROBIN"; // default when a route has no load-balancer metadata
+        private String hashHeader = "X-User-Id"; // key for CONSISTENT_HASH routes
+        private double loadFactor = 1.25; // max in-flight load of an instance relative to the average
+        private int virtualNodes = 100; // ring nodes per instance
+    }
+    
     @Data
     public static class Service {
         private String url;
@@ -0,0 +1,75 @@
+package com.pawlanet.api.gateway.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.boot.context.properties.bind.BindableRuntimeHintsRegistrar;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+
+import com.pawlanet.api.gateway.filter.IdempotencyFilter;
+import com.pawlanet.api.gateway.registry.ServiceRegistry;
+import com.pawlanet.api.gateway.resilience.CircuitBreakerStateSync;
+
+import io.fabric8.kubernetes.api.model.IntOrString;
+import io.fabric8.kubernetes.api.model.ListMeta;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServiceList;
+import io.fabric8.kubernetes.api.model.ServicePort;
+import io.fabric8.kubernetes.api.model.ServiceSpec;
+import io.fabric8.kubernetes.api.model.ServiceStatus;
+import io.fabric8.kubernetes.api.model.Status;
+import io.fabric8.kubernetes.api.model.WatchEvent;
+
+/**
+ * Reflection and resource hints for the GraalVM native image.
+ * Covers libraries that instantiate classes by name (jjwt), Jackson-mapped
+ * Kubernetes model classes, and our own Lombok types that are bound or
+ * serialized at runtime rather than during AOT processing.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final String[] JJWT_IMPLEMENTATIONS = {
+        "io.jsonwebtoken.impl.DefaultJwtBuilder",
+        "io.jsonwebtoken.impl.DefaultJwtParser",
+        "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+        "io.jsonwebtoken.impl.DefaultClaims",
+        "io.jsonwebtoken.impl.DefaultJwsHeader",
+        "io.jsonwebtoken.impl.compression.DefaultCompressionCodecResolver",
+        "io.jsonwebtoken.jackson.io.JacksonSerializer",
+        "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+    };
+
+    private static final Class<?>[] KUBERNETES_MODEL = {
+        Service.class, ServiceList.class, ServiceSpec.class, ServicePort.class, ServiceStatus.class,
+        ObjectMeta.class, ListMeta.class, IntOrString.class, Status.class, WatchEvent.class
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // jjwt loads its implementation and serializer classes by name
+        for (String type : JJWT_IMPLEMENTATIONS) {
+            hints.reflection().registerType(TypeReference.of(type),
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+
+        for (Class<?> type : KUBERNETES_MODEL) {
+            hints.reflection().registerType(type, MemberCategory.values());
+        }
+
+        // Serialized with Jackson
+        hints.reflection().registerType(IdempotencyFilter.StoredResponse.class, MemberCategory.values());
+        hints.reflection().registerType(CircuitBreakerStateSync.StateTransitionMessage.class, MemberCategory.values());
+        hints.reflection().registerType(ServiceRegistry.ServiceInfo.class, MemberCategory.values());
+
+        // Bound by the config reloader at runtime
+        BindableRuntimeHintsRegistrar.forTypes(GatewayProperties.class,
+            GatewayConfigReloader.CircuitBreakerSettings.class,
+            RouteDefinition.class, PredicateDefinition.class, FilterDefinition.class)
+            .registerHints(hints, classLoader);
+    }
+}
@@ -0,0 +1,104 @@
+package com.pawlanet.api.gateway.controller;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import com.pawlanet.api.gateway.registry.RegistryMetrics;
+import com.pawlanet.api.gateway.util.NettyDiagnostics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Actuator endpoint ({@code /actuator/diagnostics}) with a runtime snapshot of
+ * the gateway: event loops, pooled allocator arenas, direct memory, upstream
+ * connection pools and service registry latencies.
+ */
+@Component
+@Endpoint(id = "diagnostics")
+@RequiredArgsConstructor
+public class GatewayDiagnosticsEndpoint {
+
+    private static final String CONNECTION_PROVIDER_PREFIX = "reactor.netty.connection.provider.";
+
+    private final NettyDiagnostics nettyDiagnostics;
+    private final MeterRegistry meterRegistry;
+
+    @ReadOperation
+    public Map<String, Object> diagnostics() {
+        Map<String, Object> diagnostics = new LinkedHashMap<>();
+        diagnostics.put("eventLoops", nettyDiagnostics.eventLoops());
+        diagnostics.put("allocator", nettyDiagnostics.allocator());
+        diagnostics.put("directMemory", nettyDiagnostics.directMemory());
+        diagnostics.put("connectionPools", connectionPools());
+        diagnostics.put("registry", Map.of(
+            "lookups", timers(RegistryMetrics.LOOKUP_TIMER),
+            "healthProbes", timers(RegistryMetrics.HEALTH_PROBE_TIMER)));
+        return diagnostics;
+    }
+
+    /**
+     * Reactor Netty pool meters grouped per pool and remote address
+     */
+    private List<Map<String, Object>> connectionPools() {
+        Map<String, Map<String, Object>> pools = new LinkedHashMap<>();
+        for (Meter meter : meterRegistry.getMeters()) {
+            String name = meter.getId().getName();
+            if (!name.startsWith(CONNECTION_PROVIDER_PREFIX)) {
+                continue;
+            }
+            String pool = meter.getId().getTag("name");
+            String remote = meter.getId().getTag("remote.address");
+            Map<String, Object> view = pools.computeIfAbsent(pool + "|" + remote, key -> {
+                Map<String, Object> created = new LinkedHashMap<>();
+                created.put("pool", pool);
+                created.put("remoteAddress", remote);
+                return created;
+            });
+            String metric = name.substring(CONNECTION_PROVIDER_PREFIX.length());
+            if (meter instanceof Gauge gauge) {
+                view.put(metric, gauge.value());
+            } else if (meter instanceof Timer timer) {
+                // pending.connections.time is the time spent waiting to acquire a connection
+                view.put(metric, timerView(timer));
+            }
+        }
+        return new ArrayList<>(pools.values());
+    }
+
+    private List<Map<String, Object>> timers(String name) {
+        List<Map<String, Object>> views = new ArrayList<>();
+        for (Timer timer : meterRegistry.find(name).timers()) {
+            Map<String, Object> view = new LinkedHashMap<>();
+            for (Tag tag : timer.getId().getTags()) {
+                view.put(tag.getKey(), tag.getValue());
+            }
+            view.putAll(timerView(timer));
+            views.add(view);
+        }
+        return views;
+    }
+
+    private Map<String, Object> timerView(Timer timer) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("count", timer.count());
+        view.put("meanMs", timer.mean(TimeUnit.MILLISECONDS));
+        view.put("maxMs", timer.max(TimeUnit.MILLISECONDS));
+        for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+            view.put("p" + Math.round(percentile.percentile() * 100) + "Ms", percentile.value(TimeUnit.MILLISECONDS));
+        }
+        return view;
+    }
+}
@@ -0,0 +1,290 @@
+package com.pawlanet.api.gateway.filter;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.pawlanet.api.gateway.config.GatewayProperties;
+
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Gateway-managed strong ETags for GET responses.
+ * Hashes cacheable upstream bodies chunk by chunk, remembers recent ETags per
+ * user and resource, and answers {@code If-None-Match} with 304 directly while
+ * the entry is fresh. Stale entries are revalidated by forwarding the request.
+ * Must run after {@link AuthenticationFilter} so entries are scoped by {@code X-User-Id}.
+ */
+@Component
+@Slf4j
+public class ETagFilter extends AbstractGatewayFilterFactory<ETagFilter.Config> {
+
+    private static final Set<HttpMethod> INVALIDATING_METHODS =
+        Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+
+    @Autowired
+    private GatewayProperties properties;
+
+    private Cache<String, CachedETag> cache;
+
+    // Sorted copy of the cache keys so a write can find the entries below a path without a full scan.
+    // Only changed inside the cache's per-key atomic operations, so it never disagrees with the cache.
+    private final NavigableSet<String> keys = new ConcurrentSkipListSet<>();
+
+    private record CachedETag(String etag, long storedAt) {
+    }
+
+    public ETagFilter() {
+        super(Config.class);
+    }
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+            .maximumSize(properties.getEtag().getMaxEntries())
+            .evictionListener((String key, CachedETag value, RemovalCause cause) -> keys.remove(key))
+            .build();
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return ((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String path = request.getURI().getRawPath();
+
+            if (INVALIDATING_METHODS.contains(request.getMethod())) {
+                // Writes invalidate the resource and everything below it
+                return chain.filter(exchange).doOnSuccess(done -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    if (status != null && status.is2xxSuccessful()) {
+                        invalidate(path);
+                    }
+                });
+            }
+            if (request.getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+
+            String key = cacheKey(request);
+            String ifNoneMatch = request.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+            CachedETag cached = cache.getIfPresent(key);
+            long freshnessMs = properties.getEtag().getFreshnessMs();
+            if (ifNoneMatch != null && cached != null
+                    && System.currentTimeMillis() - cached.storedAt() < freshnessMs
+                    && matches(ifNoneMatch, cached.etag())) {
+                Metrics.counter("gateway.etag.not.modified", "source", "gateway").increment();
+                return notModified(exchange.getResponse(), cached.etag());
+            }
+
+            ServerHttpResponse response = new ETagResponse(exchange, key, ifNoneMatch, cached);
+            return chain.filter(exchange.mutate().response(response).build());
+        });
+    }
+
+    private class ETagResponse extends ServerHttpResponseDecorator {
+        private final String key;
+        private final String ifNoneMatch;
+        private final CachedETag cached;
+
+        ETagResponse(ServerWebExchange exchange, String key, String ifNoneMatch, CachedETag cached) {
+            super(exchange.getResponse());
+            this.key = key;
+            this.ifNoneMatch = ifNoneMatch;
+            this.cached = cached;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            if (status != null && status.value() == HttpStatus.NOT_MODIFIED.value()) {
+                // Upstream revalidated the resource, keep the known ETag fresh
+                String etag = getHeaders().getETag() != null ? getHeaders().getETag()
+                    : cached != null ? cached.etag() : null;
+                if (etag != null) {
+                    remember(key, etag);
+                    Metrics.counter("gateway.etag.not.modified", "source", "upstream").increment();
+                }
+                return super.writeWith(body);
+            }
+            if (getHeaders().getETag() != null && (status == null || status.value() == HttpStatus.OK.value())) {
+                // Upstream manages its own ETag, just remember it
+                remember(key, getHeaders().getETag());
+                return super.writeWith(body);
+            }
+            if (!isCacheable()) {
+                return super.writeWith(body);
+            }
+
+            // Chunks are hashed in place as they arrive. They are held back only until the body ends or
+            // grows past maxBodyBytes, since the ETag header has to be set before the first byte is
+            // written; past the limit the held chunks are written and the rest streams through unhashed.
+            BodyHash hash = new BodyHash(properties.getEtag().getMaxBodyBytes());
+            return Flux.<DataBuffer>from(body)
+                .bufferUntil(hash::update)
+                .switchOnFirst((first, chunks) -> {
+                    Flux<DataBuffer> buffers = chunks.concatMapIterable(Function.identity());
+                    if (first.isOnError() || hash.isOverLimit()) {
+                        return ETagResponse.super.writeWith(buffers);
+                    }
+
+                    String etag = hash.etag();
+                    remember(key, etag);
+
+                    if (ifNoneMatch != null && matches(ifNoneMatch, etag)) {
+                        // The whole body is in the first signal, nothing else is coming
+                        if (first.hasValue()) {
+                            first.get().forEach(DataBufferUtils::release);
+                        }
+                        Metrics.counter("gateway.etag.not.modified", "source", "gateway").increment();
+                        return notModified(getDelegate(), etag);
+                    }
+                    getHeaders().setETag(etag);
+                    return ETagResponse.super.writeWith(buffers);
+                })
+                .then();
+        }
+
+        private boolean isCacheable() {
+            HttpStatusCode status = getStatusCode();
+            HttpHeaders headers = getHeaders();
+            String cacheControl = headers.getCacheControl();
+            return (status == null || status.value() == HttpStatus.OK.value())
+                && !headers.containsKey(HttpHeaders.SET_COOKIE)
+                && (cacheControl == null || !cacheControl.contains("no-store"))
+                && headers.getContentLength() <= properties.getEtag().getMaxBodyBytes();
+        }
+    }
+
+    /**
+     * Running digest of a response body, abandoned once the body passes the size limit
+     */
+    private class BodyHash {
+        private final int maxBodyBytes;
+        private final MessageDigest digest = newDigest();
+        private long size;
+        private boolean overLimit;
+
+        BodyHash(int maxBodyBytes) {
+            this.maxBodyBytes = maxBodyBytes;
+        }
+
+        /**
+         * @return true once the body is over the limit, so the chunks seen so far and every later one are let through
+         */
+        boolean update(DataBuffer buffer) {
+            if (overLimit) {
+                return true;
+            }
+            size += buffer.readableByteCount();
+            if (size > maxBodyBytes) {
+                overLimit = true;
+                return true;
+            }
+            try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+                iterator.forEachRemaining(digest::update);
+            }
+            return false;
+        }
+
+        boolean isOverLimit() {
+            return overLimit;
+        }
+
+        String etag() {
+            return "\"" + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Arrays.copyOf(digest.digest(), 16)) + "\"";
+        }
+    }
+
+    private Mono<Void> notModified(ServerHttpResponse response, String etag) {
+        response.setStatusCode(HttpStatus.NOT_MODIFIED);
+        response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+        response.getHeaders().remove(HttpHeaders.CONTENT_TYPE);
+        response.getHeaders().setETag(etag);
+        return response.setComplete();
+    }
+
+    private String cacheKey(ServerHttpRequest request) {
+        String userId = request.getHeaders().getFirst("X-User-Id");
+        String query = request.getURI().getRawQuery();
+        return request.getURI().getRawPath() + (query != null ? "?" + query : "") + "|" + userId;
+    }
+
+    private void remember(String key, String etag) {
+        cache.asMap().compute(key, (k, previous) -> {
+            keys.add(k);
+            return new CachedETag(etag, System.currentTimeMillis());
+        });
+    }
+
+    /**
+     * Drops the entries for the path itself and for the resources below it. Keys are
+     * {@code path[?query]|user}, so only keys continuing with '/', '?' or '|' belong to the
+     * path; {@code /posts/1} must not take {@code /posts/10} with it.
+     */
+    private void invalidate(String path) {
+        for (String key : keys.subSet(path, true, path + Character.MAX_VALUE, false)) {
+            char next = key.length() > path.length() ? key.charAt(path.length()) : '|';
+            if (path.endsWith("/") || next == '/' || next == '?' || next == '|') {
+                cache.asMap().compute(key, (k, previous) -> {
+                    keys.remove(k);
+                    return null;
+                });
+            }
+        }
+    }
+
+    private boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            // If-None-Match uses weak comparison
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static class Config {
+        // Configuration properties if needed
+    }
+}
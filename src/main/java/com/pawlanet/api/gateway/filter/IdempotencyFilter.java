@@ -0,0 +1,237 @@
+package com.pawlanet.api.gateway.filter;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pawlanet.api.gateway.config.GatewayProperties;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Deduplicates POST requests carrying an {@code Idempotency-Key} header.
+ * The key is reserved in Redis per user; concurrent duplicates wait for the
+ * first attempt and later duplicates get the stored response replayed.
+ * Must run after {@link AuthenticationFilter} so {@code X-User-Id} is present.
+ */
+@Component
+@Slf4j
+public class IdempotencyFilter extends AbstractGatewayFilterFactory<IdempotencyFilter.Config> {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final String KEY_PREFIX = "idempotency:";
+    private static final String PENDING = "PENDING";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final List<String> EXCLUDED_HEADERS = List.of(
+        HttpHeaders.CONTENT_LENGTH, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION);
+
+    @Autowired
+    private ReactiveStringRedisTemplate redisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private GatewayProperties properties;
+
+    private enum Reservation { RESERVED, DUPLICATE, UNAVAILABLE }
+
+    public record StoredResponse(String fingerprint, int status, Map<String, List<String>> headers, byte[] body) {
+    }
+
+    public IdempotencyFilter() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return ((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String idempotencyKey = request.getHeaders().getFirst(IDEMPOTENCY_KEY_HEADER);
+            String userId = request.getHeaders().getFirst("X-User-Id");
+
+            if (request.getMethod() != HttpMethod.POST || !StringUtils.hasText(idempotencyKey) || userId == null) {
+                return chain.filter(exchange);
+            }
+            if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+                return onError(exchange, HttpStatus.BAD_REQUEST);
+            }
+
+            String redisKey = KEY_PREFIX + userId + ":" + idempotencyKey;
+            String fingerprint = request.getMethod() + " " + request.getURI().getRawPath();
+            return handle(exchange, chain, redisKey, fingerprint);
+        });
+    }
+
+    private Mono<Void> handle(ServerWebExchange exchange, GatewayFilterChain chain, String redisKey,
+                              String fingerprint) {
+        GatewayProperties.Idempotency settings = properties.getIdempotency();
+        return redisTemplate.opsForValue()
+            .setIfAbsent(redisKey, PENDING, Duration.ofSeconds(settings.getLockTtlSeconds()))
+            .map(reserved -> reserved ? Reservation.RESERVED : Reservation.DUPLICATE)
+            .onErrorResume(e -> {
+                log.warn("Idempotency store unavailable, forwarding without deduplication: {}", e.getMessage());
+                return Mono.just(Reservation.UNAVAILABLE);
+            })
+            .flatMap(reservation -> switch (reservation) {
+                case RESERVED -> forwardAndStore(exchange, chain, redisKey, fingerprint);
+                case DUPLICATE -> awaitFirstAttempt(exchange, chain, redisKey, fingerprint);
+                default -> chain.filter(exchange);
+            });
+    }
+
+    private Mono<Void> forwardAndStore(ServerWebExchange exchange, GatewayFilterChain chain, String redisKey,
+                                       String fingerprint) {
+        int maxBodyBytes = properties.getIdempotency().getMaxBodyBytes();
+        AtomicBoolean handled = new AtomicBoolean();
+
+        ServerHttpResponseDecorator response = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                handled.set(true);
+                if (getHeaders().getContentLength() > maxBodyBytes) {
+                    return release(redisKey).then(super.writeWith(body));
+                }
+                // Chunks are held only up to maxBodyBytes. A larger body, typically chunked without a
+                // Content-Length, is not remembered: the key is released and the response streams through
+                AtomicLong size = new AtomicLong();
+                return Flux.<DataBuffer>from(body)
+                    .bufferUntil(buffer -> size.addAndGet(buffer.readableByteCount()) > maxBodyBytes)
+                    .switchOnFirst((first, chunks) -> {
+                        Flux<DataBuffer> buffers = chunks.concatMapIterable(Function.identity());
+                        if (first.isOnError()) {
+                            return super.writeWith(buffers);
+                        }
+                        if (size.get() > maxBodyBytes) {
+                            return release(redisKey).then(super.writeWith(buffers));
+                        }
+                        return DataBufferUtils.join(buffers, maxBodyBytes)
+                            .map(buffer -> {
+                                byte[] bytes = new byte[buffer.readableByteCount()];
+                                buffer.read(bytes);
+                                DataBufferUtils.release(buffer);
+                                return bytes;
+                            })
+                            .defaultIfEmpty(new byte[0])
+                            // Store before the client sees the response so an immediate retry replays it
+                            .flatMap(bytes -> complete(redisKey, fingerprint, getStatusCode(), getHeaders(), bytes)
+                                .then(super.writeWith(Mono.just(bufferFactory().wrap(bytes)))));
+                    })
+                    .then();
+            }
+        };
+
+        return chain.filter(exchange.mutate().response(response).build())
+            .then(Mono.defer(() -> handled.get() ? Mono.<Void>empty()
+                : complete(redisKey, fingerprint, response.getStatusCode(), response.getHeaders(), new byte[0])))
+            .onErrorResume(e -> release(redisKey).then(Mono.error(e)));
+    }
+
+    private Mono<Void> complete(String redisKey, String fingerprint, HttpStatusCode status, HttpHeaders headers,
+                                byte[] body) {
+        GatewayProperties.Idempotency settings = properties.getIdempotency();
+        if (status == null || status.is5xxServerError() || body.length > settings.getMaxBodyBytes()) {
+            // Failed attempts are not remembered so the client can retry them
+            return release(redisKey);
+        }
+        try {
+            Map<String, List<String>> storedHeaders = new LinkedHashMap<>(headers);
+            storedHeaders.keySet().removeIf(name -> EXCLUDED_HEADERS.stream().anyMatch(name::equalsIgnoreCase));
+            String value = objectMapper.writeValueAsString(
+                new StoredResponse(fingerprint, status.value(), storedHeaders, body));
+            return redisTemplate.opsForValue()
+                .set(redisKey, value, Duration.ofSeconds(settings.getTtlSeconds()))
+                .then()
+                .onErrorResume(e -> {
+                    log.warn("Failed to store idempotent response for {}: {}", redisKey, e.getMessage());
+                    return release(redisKey);
+                });
+        } catch (Exception e) {
+            log.error("Failed to serialize idempotent response for {}", redisKey, e);
+            return release(redisKey);
+        }
+    }
+
+    private Mono<Void> awaitFirstAttempt(ServerWebExchange exchange, GatewayFilterChain chain, String redisKey,
+                                         String fingerprint) {
+        GatewayProperties.Idempotency settings = properties.getIdempotency();
+        return redisTemplate.opsForValue().get(redisKey)
+            .defaultIfEmpty("")
+            .filter(value -> !PENDING.equals(value))
+            .repeatWhenEmpty(repeat -> repeat.delayElements(Duration.ofMillis(settings.getPollIntervalMs())))
+            .timeout(Duration.ofMillis(settings.getWaitTimeoutMs()))
+            .flatMap(value -> value.isEmpty()
+                // First attempt failed and released the key, try to become the first attempt
+                ? handle(exchange, chain, redisKey, fingerprint)
+                : replay(exchange, value, fingerprint))
+            .onErrorResume(TimeoutException.class, e -> onError(exchange, HttpStatus.CONFLICT));
+    }
+
+    private Mono<Void> replay(ServerWebExchange exchange, String value, String fingerprint) {
+        StoredResponse stored;
+        try {
+            stored = objectMapper.readValue(value, StoredResponse.class);
+        } catch (Exception e) {
+            log.error("Corrupt idempotent response in store: {}", e.getMessage());
+            return onError(exchange, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        if (!fingerprint.equals(stored.fingerprint())) {
+            // Same key reused for a different request
+            return onError(exchange, HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatusCode.valueOf(stored.status()));
+        response.getHeaders().putAll(stored.headers());
+        response.getHeaders().set(REPLAYED_HEADER, "true");
+        response.getHeaders().setContentLength(stored.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(stored.body())));
+    }
+
+    private Mono<Void> release(String redisKey) {
+        return redisTemplate.delete(redisKey)
+            .then()
+            .onErrorResume(e -> {
+                log.warn("Failed to release idempotency key {}: {}", redisKey, e.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    private Mono<Void> onError(ServerWebExchange exchange, HttpStatus httpStatus) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(httpStatus);
+        return response.setComplete();
+    }
+
+    public static class Config {
+        // Configuration properties if needed
+    }
+}
@@ -0,0 +1,96 @@
+package com.pawlanet.api.gateway.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.pawlanet.api.gateway.config.GatewayProperties;
+import com.pawlanet.api.gateway.util.EventLoopMonitor;
+
+import io.micrometer.core.instrument.Metrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Admission control for routed traffic. Under event-loop overload the lowest
+ * priority routes are rejected first with a fast 503 and Retry-After.
+ * Priority comes from the route metadata key {@code priority}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoadSheddingFilter implements GlobalFilter, Ordered {
+
+    public static final String PRIORITY_METADATA = "priority";
+
+    private final EventLoopMonitor eventLoopMonitor;
+    private final GatewayProperties properties;
+
+    public enum Priority {
+        CRITICAL, HIGH, NORMAL, LOW;
+
+        /**
+         * CRITICAL is never shed, LOW is shed from overload level 1 on
+         */
+        boolean shedAt(int overloadLevel) {
+            return overloadLevel > 0 && ordinal() >= values().length - overloadLevel;
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        GatewayProperties.LoadShedding config = properties.getLoadShedding();
+        if (!config.isEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        int overloadLevel = eventLoopMonitor.getOverloadLevel();
+        if (overloadLevel == 0) {
+            return chain.filter(exchange);
+        }
+
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        Priority priority = resolvePriority(route, config);
+        if (!priority.shedAt(overloadLevel)) {
+            return chain.filter(exchange);
+        }
+
+        String routeId = route != null ? route.getId() : "unknown";
+        log.debug("Shedding request to route {} (priority {}, overload level {})",
+            routeId, priority, overloadLevel);
+        Metrics.counter("gateway.load.shed", "route", routeId, "priority", priority.name()).increment();
+        return onShed(exchange, config.getRetryAfterSeconds());
+    }
+
+    private Priority resolvePriority(Route route, GatewayProperties.LoadShedding config) {
+        Object value = route != null ? route.getMetadata().get(PRIORITY_METADATA) : null;
+        String name = value != null ? value.toString() : config.getDefaultPriority();
+        try {
+            return Priority.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warn("Unknown priority {} on route {}, using NORMAL", name, route != null ? route.getId() : null);
+            return Priority.NORMAL;
+        }
+    }
+
+    private Mono<Void> onShed(ServerWebExchange exchange, int retryAfterSeconds) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return response.setComplete();
+    }
+
+    @Override
+    public int getOrder() {
+        // Reject before authentication or any upstream work is done
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,315 @@
+package com.pawlanet.api.gateway.filter;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.pawlanet.api.gateway.config.GatewayProperties;
+
+import io.micrometer.core.instrument.Metrics;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Sends a sampled copy of each request to a shadow upstream.
+ * Mirroring is fire-and-forget on its own connection pool and event loop,
+ * bounded by a concurrency and a buffered-bytes cap; when a cap is hit the
+ * copy is dropped, never the primary request.
+ */
+@Component
+@Slf4j
+public class MirrorFilter extends AbstractGatewayFilterFactory<MirrorFilter.Config> {
+
+    public static final String MIRRORED_HEADER = "X-Mirrored";
+
+    @Autowired
+    private GatewayProperties properties;
+
+    private final AtomicLong bufferedBytes = new AtomicLong();
+    private Semaphore inFlight;
+    private LoopResources loopResources;
+    private ConnectionProvider connectionProvider;
+    private WebClient webClient;
+
+    public MirrorFilter() {
+        super(Config.class);
+    }
+
+    @PostConstruct
+    public void init() {
+        GatewayProperties.Mirror settings = properties.getMirror();
+        inFlight = new Semaphore(settings.getMaxConcurrent());
+        loopResources = LoopResources.create("mirror", settings.getIoThreads(), true);
+        connectionProvider = ConnectionProvider.builder("mirror")
+            .maxConnections(settings.getMaxConnections())
+            .pendingAcquireMaxCount(settings.getMaxConnections())
+            .pendingAcquireTimeout(Duration.ofMillis(settings.getTimeoutMs()))
+            .metrics(true)
+            .build();
+        // Without a connect timeout a black-holed shadow host would hold permits for Netty's 30s default
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+            .runOn(loopResources)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) settings.getTimeoutMs())
+            .responseTimeout(Duration.ofMillis(settings.getTimeoutMs()));
+        webClient = WebClient.builder()
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .build();
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("shadowUri", "sampleRate");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return ((exchange, chain) -> {
+            if (!StringUtils.hasText(config.getShadowUri())
+                    || ThreadLocalRandom.current().nextDouble() >= config.getSampleRate()) {
+                return chain.filter(exchange);
+            }
+            String routeId = routeId(exchange);
+            GatewayProperties.Mirror settings = properties.getMirror();
+            if (exchange.getRequest().getHeaders().getContentLength() > settings.getMaxBodyBytes()
+                    || !inFlight.tryAcquire()) {
+                recordOutcome(routeId, "dropped");
+                return chain.filter(exchange);
+            }
+
+            MirrorCapture capture = new MirrorCapture(settings, bufferedBytes, inFlight);
+            ServerHttpRequest request = new ServerHttpRequestDecorator(exchange.getRequest()) {
+                @Override
+                public Flux<DataBuffer> getBody() {
+                    return super.getBody().doOnNext(capture::capture).doOnComplete(capture::complete);
+                }
+            };
+
+            // Both sides are timed to response headers so the comparison leaves out how fast the
+            // client reads the primary response; the chain completes only after that
+            long start = System.nanoTime();
+            AtomicLong primaryNanos = new AtomicLong(-1);
+            exchange.getResponse().beforeCommit(() -> {
+                primaryNanos.compareAndSet(-1, System.nanoTime() - start);
+                return Mono.empty();
+            });
+            return chain.filter(exchange.mutate().request(request).build())
+                .doFinally(signal -> {
+                    // A cancelled or failed exchange, or one whose body was not read to the end, has no full copy
+                    if (signal != SignalType.ON_COMPLETE || !capture.isComplete()) {
+                        capture.release();
+                        recordOutcome(routeId, "dropped");
+                        return;
+                    }
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    send(exchange, config, routeId, capture, status,
+                        primaryNanos.get() >= 0 ? primaryNanos.get() : System.nanoTime() - start);
+                });
+        });
+    }
+
+    private void send(ServerWebExchange exchange, Config config, String routeId, MirrorCapture capture,
+                      HttpStatusCode primaryStatus, long primaryNanos) {
+        if (capture.isAborted()) {
+            capture.release();
+            recordOutcome(routeId, "dropped");
+            return;
+        }
+        ServerHttpRequest original = exchange.getRequest();
+        URI target = UriComponentsBuilder.fromUriString(config.getShadowUri())
+            .path(original.getURI().getRawPath())
+            .query(original.getURI().getRawQuery())
+            .build(true)
+            .toUri();
+
+        long start = System.nanoTime();
+        try {
+            WebClient.RequestBodySpec spec = webClient.method(original.getMethod())
+                .uri(target)
+                .headers(headers -> {
+                    headers.addAll(original.getHeaders());
+                    headers.remove(HttpHeaders.HOST);
+                    headers.remove(HttpHeaders.CONTENT_LENGTH);
+                    headers.set(MIRRORED_HEADER, "true");
+                });
+            byte[] body = capture.body();
+            (body.length > 0 ? spec.bodyValue(body) : spec)
+                .exchangeToMono(response -> {
+                    long shadowNanos = System.nanoTime() - start;
+                    return response.releaseBody().thenReturn(new ShadowResponse(response.statusCode(), shadowNanos));
+                })
+                .doFinally(signal -> capture.release())
+                .subscribe(
+                    shadow -> {
+                        recordOutcome(routeId, "sent");
+                        if (config.isCompareResponses()) {
+                            recordDiff(routeId, primaryStatus, shadow.status(), primaryNanos, shadow.nanos());
+                        }
+                    },
+                    e -> {
+                        recordOutcome(routeId, "error");
+                        log.debug("Mirrored request to {} failed: {}", target, e.getMessage());
+                    });
+        } catch (Exception e) {
+            capture.release();
+            recordOutcome(routeId, "error");
+            log.debug("Could not mirror request to {}: {}", target, e.getMessage());
+        }
+    }
+
+    private record ShadowResponse(HttpStatusCode status, long nanos) {
+    }
+
+    private void recordOutcome(String routeId, String outcome) {
+        Metrics.counter("gateway.mirror.requests", "route", routeId, "outcome", outcome).increment();
+    }
+
+    private void recordDiff(String routeId, HttpStatusCode primaryStatus, HttpStatusCode shadowStatus,
+                            long primaryNanos, long shadowNanos) {
+        boolean statusMatch = primaryStatus != null && primaryStatus.value() == shadowStatus.value();
+        Metrics.counter("gateway.mirror.diff", "route", routeId, "status", statusMatch ? "match" : "mismatch")
+            .increment();
+        Metrics.timer("gateway.mirror.latency", "route", routeId, "target", "primary")
+            .record(primaryNanos, TimeUnit.NANOSECONDS);
+        Metrics.timer("gateway.mirror.latency", "route", routeId, "target", "shadow")
+            .record(shadowNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "unknown";
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (connectionProvider != null) {
+            connectionProvider.dispose();
+        }
+        if (loopResources != null) {
+            loopResources.dispose();
+        }
+    }
+
+    /**
+     * Copy of the request body as the primary request streams it, within the caps.
+     * {@code bufferedBytes} is shared by all captures and only ever holds bytes
+     * a capture actually kept.
+     */
+    static class MirrorCapture {
+        private final GatewayProperties.Mirror settings;
+        private final AtomicLong bufferedBytes;
+        private final Semaphore inFlight;
+        private final List<byte[]> chunks = new ArrayList<>();
+        private int size;
+        private boolean aborted;
+        private boolean complete;
+        private boolean released;
+
+        MirrorCapture(GatewayProperties.Mirror settings, AtomicLong bufferedBytes, Semaphore inFlight) {
+            this.settings = settings;
+            this.bufferedBytes = bufferedBytes;
+            this.inFlight = inFlight;
+        }
+
+        synchronized void capture(DataBuffer buffer) {
+            if (aborted || released) {
+                return;
+            }
+            int length = buffer.readableByteCount();
+            if (size + length > settings.getMaxBodyBytes()) {
+                abort();
+                return;
+            }
+            if (bufferedBytes.addAndGet(length) > settings.getMaxBufferedBytes()) {
+                bufferedBytes.addAndGet(-length);
+                abort();
+                return;
+            }
+            byte[] chunk = new byte[length];
+            // Copy without moving the read position the primary request relies on
+            buffer.toByteBuffer(buffer.readPosition(), ByteBuffer.wrap(chunk), 0, length);
+            chunks.add(chunk);
+            size += length;
+        }
+
+        synchronized void complete() {
+            complete = true;
+        }
+
+        synchronized boolean isComplete() {
+            return complete;
+        }
+
+        synchronized boolean isAborted() {
+            return aborted;
+        }
+
+        synchronized byte[] body() {
+            byte[] body = new byte[size];
+            int offset = 0;
+            for (byte[] chunk : chunks) {
+                System.arraycopy(chunk, 0, body, offset, chunk.length);
+                offset += chunk.length;
+            }
+            chunks.clear();
+            chunks.add(body);
+            return body;
+        }
+
+        private void abort() {
+            aborted = true;
+            chunks.clear();
+            bufferedBytes.addAndGet(-size);
+            size = 0;
+        }
+
+        synchronized void release() {
+            if (released) {
+                return;
+            }
+            released = true;
+            bufferedBytes.addAndGet(-size);
+            size = 0;
+            chunks.clear();
+            inFlight.release();
+        }
+    }
+
+    @Data
+    public static class Config {
+        private String shadowUri;
+        private double sampleRate = 1.0;
+        private boolean compareResponses = false;
+    }
+}
@@ -0,0 +1,94 @@
+package com.pawlanet.api.gateway.filter;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.pawlanet.api.gateway.registry.OutlierDetector;
+
+import io.netty.channel.ConnectTimeoutException;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Feeds every upstream response and failure into the {@link OutlierDetector}.
+ * Runs inside the route filters so errors are seen before a circuit breaker
+ * fallback replaces them.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutlierDetectionFilter implements GlobalFilter, Ordered {
+
+    public static final int OUTLIER_DETECTION_FILTER_ORDER = RouteToRequestUrlFilter.ROUTE_TO_URL_FILTER_ORDER + 100;
+
+    private final OutlierDetector outlierDetector;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long start = System.nanoTime();
+        // The chain only completes once the body has reached the client, so latency is taken when the
+        // upstream response is committed; client upload and download speed must not eject an instance
+        AtomicLong upstreamNanos = new AtomicLong(-1);
+        exchange.getResponse().beforeCommit(() -> {
+            upstreamNanos.compareAndSet(-1, System.nanoTime() - start);
+            return Mono.empty();
+        });
+        return chain.filter(exchange)
+            .doOnSuccess(done -> {
+                URI url = upstreamUrl(exchange);
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                if (url != null && status != null) {
+                    long nanos = upstreamNanos.get() >= 0 ? upstreamNanos.get() : System.nanoTime() - start;
+                    outlierDetector.recordResponse(url.getHost(), port(url), status.value(),
+                        TimeUnit.NANOSECONDS.toMillis(nanos));
+                }
+            })
+            .doOnError(e -> {
+                URI url = upstreamUrl(exchange);
+                if (url != null) {
+                    outlierDetector.recordFailure(url.getHost(), port(url), isConnectFailure(e));
+                }
+            });
+    }
+
+    private URI upstreamUrl(ServerWebExchange exchange) {
+        // Read on completion, after any load balancing rewrote the target
+        URI url = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        if (url == null || url.getHost() == null) {
+            return null;
+        }
+        String scheme = url.getScheme();
+        return "http".equals(scheme) || "https".equals(scheme) ? url : null;
+    }
+
+    private int port(URI url) {
+        if (url.getPort() > 0) {
+            return url.getPort();
+        }
+        return "https".equals(url.getScheme()) ? 443 : 80;
+    }
+
+    private boolean isConnectFailure(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof ConnectTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int getOrder() {
+        return OUTLIER_DETECTION_FILTER_ORDER;
+    }
+}
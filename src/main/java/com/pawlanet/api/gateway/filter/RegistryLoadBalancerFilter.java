@@ -0,0 +1,90 @@
+package com.pawlanet.api.gateway.filter;
+
+import java.net.URI;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.pawlanet.api.gateway.config.GatewayProperties;
+import com.pawlanet.api.gateway.registry.RegistryLoadBalancer;
+import com.pawlanet.api.gateway.registry.ServiceRegistry;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Rewrites the upstream URL of routes that point at a registered service
+ * to one concrete instance of it, so scaled services get traffic on every replica.
+ * The strategy comes from the route metadata key {@code load-balancer}; with
+ * {@code CONSISTENT_HASH} requests carrying the hash header (the
+ * {@code X-User-Id} set by {@link AuthenticationFilter}) stick to one instance.
+ * Runs between route-to-URL resolution and outlier detection.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RegistryLoadBalancerFilter implements GlobalFilter, Ordered {
+
+    public static final int REGISTRY_LOAD_BALANCER_FILTER_ORDER = RouteToRequestUrlFilter.ROUTE_TO_URL_FILTER_ORDER + 50;
+    public static final String LOAD_BALANCER_METADATA = "load-balancer";
+
+    private final RegistryLoadBalancer loadBalancer;
+    private final GatewayProperties properties;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        URI url = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        GatewayProperties.LoadBalancing config = properties.getLoadBalancing();
+        if (!config.isEnabled() || url == null || url.getHost() == null) {
+            return chain.filter(exchange);
+        }
+        String serviceName = loadBalancer.resolveServiceName(url.getHost(), url.getPort());
+        if (serviceName == null) {
+            return chain.filter(exchange);
+        }
+
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String hashKey = exchange.getRequest().getHeaders().getFirst(config.getHashHeader());
+        ServiceRegistry.ServiceInfo instance = resolveStrategy(route, config) == RegistryLoadBalancer.Strategy.CONSISTENT_HASH
+                && StringUtils.hasText(hashKey)
+            ? loadBalancer.choose(serviceName, hashKey)
+            : loadBalancer.choose(serviceName);
+
+        if (!instance.getUrl().equals(url.getHost()) || instance.getPort() != url.getPort()) {
+            URI target = UriComponentsBuilder.fromUri(url)
+                .host(instance.getUrl())
+                .port(instance.getPort())
+                .build(true)
+                .toUri();
+            exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR, target);
+        }
+        loadBalancer.acquire(instance);
+        return chain.filter(exchange)
+            .doFinally(signal -> loadBalancer.release(instance));
+    }
+
+    private RegistryLoadBalancer.Strategy resolveStrategy(Route route, GatewayProperties.LoadBalancing config) {
+        Object value = route != null ? route.getMetadata().get(LOAD_BALANCER_METADATA) : null;
+        String name = value != null ? value.toString() : config.getStrategy();
+        try {
+            return RegistryLoadBalancer.Strategy.valueOf(name.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            log.warn("Unknown load balancer {} on route {}, using ROUND_ROBIN", name, route != null ? route.getId() : null);
+            return RegistryLoadBalancer.Strategy.ROUND_ROBIN;
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return REGISTRY_LOAD_BALANCER_FILTER_ORDER;
+    }
+}
@@ -0,0 +1,105 @@
+package com.pawlanet.api.gateway.registry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Immutable consistent-hash ring over service instances.
+ * Every instance owns a number of virtual nodes, so adding or removing one
+ * instance only remaps the keys that hashed to its nodes. Lookups walk the ring
+ * clockwise and skip instances the caller rejects (bounded load, ejection).
+ */
+public class ConsistentHashRing {
+
+    private final List<ServiceRegistry.ServiceInfo> instances;
+    private final long[] hashes;
+    private final int[] owners;
+
+    public ConsistentHashRing(List<ServiceRegistry.ServiceInfo> instances, int virtualNodes) {
+        this.instances = List.copyOf(instances);
+        int size = this.instances.size() * virtualNodes;
+        long[][] nodes = new long[size][];
+        int n = 0;
+        for (int i = 0; i < this.instances.size(); i++) {
+            String key = instanceKey(this.instances.get(i));
+            for (int v = 0; v < virtualNodes; v++) {
+                nodes[n++] = new long[] {hash(key + "#" + v), i};
+            }
+        }
+        // Sort unsigned so the ring order is the natural 64-bit hash space
+        Arrays.sort(nodes, (a, b) -> Long.compareUnsigned(a[0], b[0]));
+        this.hashes = new long[size];
+        this.owners = new int[size];
+        for (int i = 0; i < size; i++) {
+            hashes[i] = nodes[i][0];
+            owners[i] = (int) nodes[i][1];
+        }
+    }
+
+    public List<ServiceRegistry.ServiceInfo> getInstances() {
+        return instances;
+    }
+
+    /**
+     * First instance clockwise from the key that the filter accepts,
+     * or the key's plain owner if none does
+     */
+    public ServiceRegistry.ServiceInfo select(String key, Predicate<ServiceRegistry.ServiceInfo> accept) {
+        if (hashes.length == 0) {
+            return null;
+        }
+        int start = firstNodeAtOrAfter(hash(key));
+        boolean[] visited = new boolean[instances.size()];
+        int remaining = instances.size();
+        for (int i = 0; i < hashes.length && remaining > 0; i++) {
+            int owner = owners[(start + i) % hashes.length];
+            if (visited[owner]) {
+                continue;
+            }
+            visited[owner] = true;
+            remaining--;
+            if (accept.test(instances.get(owner))) {
+                return instances.get(owner);
+            }
+        }
+        return instances.get(owners[start]);
+    }
+
+    private int firstNodeAtOrAfter(long hash) {
+        int low = 0;
+        int high = hashes.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(hashes[mid], hash) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        // Past the last node wraps around to the first
+        return low == hashes.length ? 0 : low;
+    }
+
+    static String instanceKey(ServiceRegistry.ServiceInfo instance) {
+        return instance.getUrl() + ":" + instance.getPort();
+    }
+
+    /**
+     * 64-bit FNV-1a with a murmur3 finalizer to spread short, similar keys
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
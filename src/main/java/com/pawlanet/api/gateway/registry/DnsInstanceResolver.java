@@ -0,0 +1,133 @@
+package com.pawlanet.api.gateway.registry;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.EventLoop;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.handler.codec.dns.DefaultDnsQuestion;
+import io.netty.handler.codec.dns.DnsRawRecord;
+import io.netty.handler.codec.dns.DnsRecord;
+import io.netty.handler.codec.dns.DnsRecordType;
+import io.netty.resolver.dns.DnsNameResolver;
+import io.netty.resolver.dns.DnsNameResolverBuilder;
+import io.netty.resolver.dns.NoopDnsCache;
+import io.netty.util.ReferenceCountUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Asynchronous DNS resolver that keeps every A record of a host.
+ * Each watched host is re-resolved in the background when its records'
+ * TTL runs out (clamped to a min/max refresh interval), and the listener is
+ * told only when a host's address set actually changes.
+ */
+@Slf4j
+public class DnsInstanceResolver implements AutoCloseable {
+
+    private final NioEventLoopGroup group = new NioEventLoopGroup(1);
+    private final EventLoop eventLoop = group.next();
+    private final DnsNameResolver resolver;
+    // Last published addresses per host, to tell changed record sets from refreshes
+    private final Map<String, List<InetAddress>> addresses = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> watched = new ConcurrentHashMap<>();
+    private final long minRefreshMillis;
+    private final long maxRefreshMillis;
+    private final BiConsumer<String, List<InetAddress>> listener;
+
+    public DnsInstanceResolver(long minRefreshMillis, long maxRefreshMillis,
+                               BiConsumer<String, List<InetAddress>> listener) {
+        this.minRefreshMillis = minRefreshMillis;
+        this.maxRefreshMillis = maxRefreshMillis;
+        this.listener = listener;
+        // Caching is done here per host with all records, not per query
+        this.resolver = new DnsNameResolverBuilder(eventLoop)
+            .datagramChannelType(NioDatagramChannel.class)
+            .resolveCache(NoopDnsCache.INSTANCE)
+            .queryTimeoutMillis(2000)
+            .build();
+    }
+
+    /**
+     * Start resolving a host and keep it refreshed
+     */
+    public void watch(String host) {
+        if (watched.putIfAbsent(host, Boolean.TRUE) == null) {
+            eventLoop.execute(() -> refresh(host));
+        }
+    }
+
+    public void unwatch(String host) {
+        watched.remove(host);
+        addresses.remove(host);
+    }
+
+    private void refresh(String host) {
+        if (!watched.containsKey(host)) {
+            return;
+        }
+        resolver.resolveAll(new DefaultDnsQuestion(host, DnsRecordType.A)).addListener(future -> {
+            long nextRefresh = minRefreshMillis;
+            if (future.isSuccess()) {
+                @SuppressWarnings("unchecked")
+                List<DnsRecord> records = (List<DnsRecord>) future.getNow();
+                try {
+                    nextRefresh = onRecords(host, records);
+                } finally {
+                    records.forEach(ReferenceCountUtil::release);
+                }
+            } else {
+                // Keep serving the last known addresses
+                log.debug("DNS refresh for {} failed: {}", host, future.cause().getMessage());
+            }
+            if (!eventLoop.isShuttingDown()) {
+                eventLoop.schedule(() -> refresh(host), nextRefresh, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    private long onRecords(String host, List<DnsRecord> records) {
+        List<InetAddress> resolved = new ArrayList<>();
+        long ttlMillis = maxRefreshMillis;
+        for (DnsRecord record : records) {
+            if (!(record instanceof DnsRawRecord raw) || record.type() != DnsRecordType.A) {
+                continue;
+            }
+            ByteBuf content = raw.content();
+            byte[] address = new byte[content.readableBytes()];
+            content.getBytes(content.readerIndex(), address);
+            try {
+                resolved.add(InetAddress.getByAddress(host, address));
+                ttlMillis = Math.min(ttlMillis, TimeUnit.SECONDS.toMillis(record.timeToLive()));
+            } catch (UnknownHostException e) {
+                log.debug("Ignoring malformed A record for {}", host);
+            }
+        }
+        if (resolved.isEmpty()) {
+            return minRefreshMillis;
+        }
+
+        // Stable order so unchanged record sets compare equal
+        resolved.sort(Comparator.comparing(InetAddress::getHostAddress));
+        List<InetAddress> previous = addresses.put(host, List.copyOf(resolved));
+        if (!resolved.equals(previous)) {
+            listener.accept(host, List.copyOf(resolved));
+        }
+        return Math.max(minRefreshMillis, Math.min(ttlMillis, maxRefreshMillis));
+    }
+
+    @Override
+    public void close() {
+        watched.clear();
+        resolver.close();
+        group.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+    }
+}
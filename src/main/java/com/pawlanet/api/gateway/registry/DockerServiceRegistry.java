@@ -3,13 +3,16 @@ package com.pawlanet.api.gateway.registry;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import reactor.core.publisher.Mono;
 
+import java.net.InetAddress;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
@@ -21,18 +24,31 @@ import java.util.concurrent.TimeUnit;
  * Uses Docker container names for service discovery
  */
 @Slf4j
-@Component
 public class DockerServiceRegistry implements ServiceRegistry {
     
+    private static final String REGISTRY_TYPE = "docker";
+    
     private final Map<String, ServiceInfo> services = new ConcurrentHashMap<>();
+    // One entry per resolved container address, filled in the background
+    private final Map<String, List<ServiceInfo>> instances = new ConcurrentHashMap<>();
     private final WebClient webClient = WebClient.create();
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    private DnsInstanceResolver dnsResolver;
     
     @Value("${docker.network.name:pawlanet-network}")
     private String dockerNetwork;
     
+    @Value("${docker.dns.min-refresh-ms:1000}")
+    private long dnsMinRefreshMillis;
+    
+    @Value("${docker.dns.max-refresh-ms:10000}")
+    private long dnsMaxRefreshMillis;
+    
     @PostConstruct
     public void init() {
+        // Resolve every replica of a scaled service, not just the address the JVM cached
+        dnsResolver = new DnsInstanceResolver(dnsMinRefreshMillis, dnsMaxRefreshMillis, this::onAddressesResolved);
+        
         // Register Docker services using container names
         registerService("auth-service", 
             new ServiceInfo("auth-service", "auth-service", 8081));
@@ -62,17 +78,32 @@ public class DockerServiceRegistry implements ServiceRegistry {
     
     @Override
     public ServiceInfo getService(String serviceName) {
+        return findService(serviceName, RegistryMetrics.SERVICE);
+    }
+    
+    private ServiceInfo findService(String serviceName, String operation) {
+        long start = System.nanoTime();
         ServiceInfo service = services.get(serviceName);
         if (service == null) {
+            RegistryMetrics.recordLookup(REGISTRY_TYPE, operation, start, false);
             log.warn("Service {} not found in Docker registry", serviceName);
             throw new RuntimeException("Service not found: " + serviceName);
         }
+        RegistryMetrics.recordLookup(REGISTRY_TYPE, operation, start, true);
         return service;
     }
     
     @Override
     public Map<String, ServiceInfo> getAllServices() {
-        return new ConcurrentHashMap<>(services);
+        long start = System.nanoTime();
+        Map<String, ServiceInfo> all = new ConcurrentHashMap<>(services);
+        RegistryMetrics.recordLookup(REGISTRY_TYPE, RegistryMetrics.ALL_SERVICES, start, true);
+        return all;
+    }
+    
+    @Override
+    public boolean hasService(String serviceName) {
+        return services.containsKey(serviceName);
     }
     
     @Override
@@ -84,6 +115,9 @@ public class DockerServiceRegistry implements ServiceRegistry {
         serviceInfo.setMetadata(metadata);
         
         services.put(name, serviceInfo);
+        if (dnsResolver != null) {
+            dnsResolver.watch(serviceInfo.getUrl());
+        }
         log.info("Registered Docker service: {} at container {}:{}", 
             name, serviceInfo.getUrl(), serviceInfo.getPort());
     }
@@ -92,18 +126,69 @@ public class DockerServiceRegistry implements ServiceRegistry {
     public void deregisterService(String name) {
         ServiceInfo removed = services.remove(name);
         if (removed != null) {
+            instances.remove(name);
+            if (dnsResolver != null) {
+                dnsResolver.unwatch(removed.getUrl());
+            }
             log.info("Deregistered Docker service: {}", name);
         }
     }
     
+    @Override
+    public List<ServiceInfo> getInstances(String serviceName) {
+        long start = System.nanoTime();
+        List<ServiceInfo> resolved = instances.get(serviceName);
+        if (resolved == null || resolved.isEmpty()) {
+            // Not resolved yet, fall back to Docker's DNS name
+            return List.of(findService(serviceName, RegistryMetrics.INSTANCES));
+        }
+        RegistryMetrics.recordLookup(REGISTRY_TYPE, RegistryMetrics.INSTANCES, start, true);
+        return resolved;
+    }
+    
+    private void onAddressesResolved(String host, List<InetAddress> addresses) {
+        services.forEach((name, service) -> {
+            if (!host.equals(service.getUrl())) {
+                return;
+            }
+            // Keep existing instances so their outlier ejection state survives refreshes
+            Map<String, ServiceInfo> current = new ConcurrentHashMap<>();
+            instances.getOrDefault(name, List.of()).forEach(instance -> current.put(instance.getUrl(), instance));
+            
+            List<ServiceInfo> updated = new ArrayList<>();
+            for (InetAddress address : addresses) {
+                String ip = address.getHostAddress();
+                ServiceInfo instance = current.get(ip);
+                if (instance == null) {
+                    instance = new ServiceInfo(name, ip, service.getPort());
+                    Map<String, String> metadata = new ConcurrentHashMap<>();
+                    if (service.getMetadata() != null) {
+                        metadata.putAll(service.getMetadata());
+                    }
+                    metadata.put("address", ip);
+                    instance.setMetadata(metadata);
+                }
+                updated.add(instance);
+            }
+            instances.put(name, List.copyOf(updated));
+            log.info("Docker service {} resolved to {} instance(s): {}", name, updated.size(),
+                updated.stream().map(ServiceInfo::getUrl).toList());
+        });
+    }
+    
     @Override
     public boolean isHealthy(String serviceName) {
         ServiceInfo service = getService(serviceName);
+        if (getInstances(serviceName).stream().allMatch(ServiceInfo::isEjected)) {
+            // Every replica ejected by outlier detection, no need to probe
+            return false;
+        }
         try {
             // Docker internal DNS resolution
             String healthUrl = String.format("http://%s:%d/actuator/health", 
                 service.getUrl(), service.getPort());
             
+            long start = System.nanoTime();
             Boolean healthy = webClient.get()
                 .uri(healthUrl)
                 .retrieve()
@@ -113,6 +198,7 @@ public class DockerServiceRegistry implements ServiceRegistry {
                 .onErrorReturn(false)
                 .block();
             
+            RegistryMetrics.recordHealthProbe(REGISTRY_TYPE, serviceName, start, Boolean.TRUE.equals(healthy));
             return Boolean.TRUE.equals(healthy);
         } catch (Exception e) {
             log.debug("Health check failed for Docker service {}: {}", serviceName, e.getMessage());
@@ -127,7 +213,11 @@ public class DockerServiceRegistry implements ServiceRegistry {
         return String.format("http://%s:%d", service.getUrl(), service.getPort());
     }
     
+    @PreDestroy
     public void shutdown() {
         scheduler.shutdown();
+        if (dnsResolver != null) {
+            dnsResolver.close();
+        }
     }
 }
\ No newline at end of file
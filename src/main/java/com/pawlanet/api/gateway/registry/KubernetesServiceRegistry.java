@@ -2,31 +2,43 @@ package com.pawlanet.api.gateway.registry;
 
 
 import io.fabric8.kubernetes.api.model.Service;
-import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+import io.fabric8.kubernetes.api.model.ServicePort;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientBuilder;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
 
 import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * Service Registry for Kubernetes environment
  * Uses Kubernetes Service Discovery API
  */
 @Slf4j
-@Component
 public class KubernetesServiceRegistry implements ServiceRegistry {
     
+    private static final String REGISTRY_TYPE = "kubernetes";
+    
     private final Map<String, ServiceInfo> services = new ConcurrentHashMap<>();
     private final WebClient webClient = WebClient.create();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
     private KubernetesClient kubernetesClient;
+    private SharedIndexInformer<Service> informer;
+    private ServiceWatcher watcher;
+    private boolean ownsClient;
+    private volatile boolean shuttingDown;
     
     @Value("${kubernetes.namespace:pawlanet-apps}")
     private String namespace;
@@ -34,75 +46,163 @@ public class KubernetesServiceRegistry implements ServiceRegistry {
     @Value("${kubernetes.service.suffix:.svc.cluster.local}")
     private String serviceSuffix;
     
+    @Value("${kubernetes.informer.resync-ms:300000}")
+    private long resyncMillis;
+    
+    @Value("${kubernetes.informer.debounce-ms:500}")
+    private long debounceMillis;
+    
+    @Value("${kubernetes.informer.sync-timeout-ms:10000}")
+    private long syncTimeoutMillis;
+    
+    @Value("${kubernetes.informer.restart-delay-ms:5000}")
+    private long restartDelayMillis;
+    
+    public KubernetesServiceRegistry() {
+    }
+    
+    KubernetesServiceRegistry(KubernetesClient kubernetesClient, String namespace, String serviceSuffix,
+                              long resyncMillis, long debounceMillis, long restartDelayMillis) {
+        this.kubernetesClient = kubernetesClient;
+        this.namespace = namespace;
+        this.serviceSuffix = serviceSuffix;
+        this.resyncMillis = resyncMillis;
+        this.debounceMillis = debounceMillis;
+        this.syncTimeoutMillis = 10000;
+        this.restartDelayMillis = restartDelayMillis;
+    }
+    
     @PostConstruct
     public void init() {
         try {
             // Initialize Kubernetes client
-            kubernetesClient = new DefaultKubernetesClient();
-            
-            // Discover services in the namespace
-            discoverServices();
+            if (kubernetesClient == null) {
+                kubernetesClient = new KubernetesClientBuilder().build();
+                ownsClient = true;
+            }
+            watcher = new ServiceWatcher(this, scheduler, debounceMillis);
             
-            // Watch for service changes
-            watchServices();
+            // List, then watch for service changes; the informer resumes from the last
+            // resourceVersion, relists when that is too old and resyncs periodically
+            startInformer();
             
             log.info("Kubernetes Service Registry initialized with {} services", services.size());
         } catch (Exception e) {
             log.error("Failed to initialize Kubernetes Service Registry", e);
             // Fallback to static configuration
             registerStaticServices();
+            if (watcher != null) {
+                // Keep trying in the background, the informer replaces the static entries
+                onInformerStopped(e);
+            }
         }
     }
     
-    private void discoverServices() {
+    private void startInformer() throws Exception {
+        SharedIndexInformer<Service> started = kubernetesClient.services()
+            .inNamespace(namespace)
+            .runnableInformer(resyncMillis);
+        started.addEventHandler(watcher);
+        // Keep retrying list/watch failures instead of stopping the informer
+        started.exceptionHandler((isStarted, t) -> {
+            log.warn("Kubernetes service informer error, retrying: {}", t.getMessage());
+            return true;
+        });
+        
         try {
-            List<Service> k8sServices = kubernetesClient
-                .services()
-                .inNamespace(namespace)
-                .list()
-                .getItems();
-            
-            for (Service k8sService : k8sServices) {
-                String serviceName = k8sService.getMetadata().getName();
-                
-                // Filter for our application services
-                if (isApplicationService(serviceName)) {
-                    Integer port = k8sService.getSpec().getPorts().get(0).getPort();
-                    String clusterIP = k8sService.getSpec().getClusterIP();
-                    
-                    ServiceInfo serviceInfo = new ServiceInfo(
-                        serviceName,
-                        serviceName + "." + namespace + serviceSuffix,
-                        port
-                    );
-                    
-                    // Add Kubernetes metadata
-                    Map<String, String> metadata = new ConcurrentHashMap<>();
-                    metadata.put("namespace", namespace);
-                    metadata.put("clusterIP", clusterIP);
-                    metadata.put("uid", k8sService.getMetadata().getUid());
-                    serviceInfo.setMetadata(metadata);
-                    
-                    services.put(serviceName, serviceInfo);
-                    log.info("Discovered Kubernetes service: {} at {}:{}", 
-                        serviceName, serviceInfo.getUrl(), port);
-                }
-            }
+            started.start().toCompletableFuture().get(syncTimeoutMillis, TimeUnit.MILLISECONDS);
         } catch (Exception e) {
-            log.error("Failed to discover Kubernetes services", e);
+            started.close();
+            throw e;
         }
+        informer = started;
+        started.stopped().whenComplete((ignored, error) -> onInformerStopped(error));
+        // Apply the initial list right away instead of waiting for the debounce window
+        watcher.flush();
+        
+        // A new informer only reports what exists now, drop entries that vanished before it
+        // started (static fallback or changes missed while a previous informer was down)
+        applyUpdates(List.of(), services.keySet().stream()
+            .filter(serviceName -> started.getStore().getByKey(namespace + "/" + serviceName) == null)
+            .toList());
     }
     
-    private void watchServices() {
-        try {
-            kubernetesClient.services()
-                .inNamespace(namespace)
-                .watch(new ServiceWatcher(this));
-        } catch (Exception e) {
-            log.error("Failed to watch Kubernetes services", e);
+    private void onInformerStopped(Throwable error) {
+        if (shuttingDown) {
+            return;
+        }
+        log.error("Kubernetes service informer stopped, restarting in {}ms", restartDelayMillis, error);
+        scheduler.schedule(() -> {
+            try {
+                startInformer();
+            } catch (Exception e) {
+                log.error("Failed to restart Kubernetes service informer", e);
+                onInformerStopped(e);
+            }
+        }, restartDelayMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    SharedIndexInformer<Service> getInformer() {
+        return informer;
+    }
+    
+    /**
+     * Apply a debounced batch of informer events
+     */
+    void applyUpdates(Collection<Service> updated, Collection<String> deleted) {
+        int changes = 0;
+        for (Service k8sService : updated) {
+            String serviceName = k8sService.getMetadata().getName();
+            if (!isApplicationService(serviceName)) {
+                continue;
+            }
+            ServiceInfo serviceInfo = toServiceInfo(k8sService);
+            // Resyncs deliver unchanged services, keep the existing entry and its state
+            if (!serviceInfo.equals(services.get(serviceName))) {
+                services.put(serviceName, serviceInfo);
+                changes++;
+                log.debug("Kubernetes service {} at {}:{}", serviceName, serviceInfo.getUrl(), serviceInfo.getPort());
+            }
+        }
+        for (String serviceName : deleted) {
+            if (services.remove(serviceName) != null) {
+                changes++;
+            }
+        }
+        if (changes > 0) {
+            log.info("Applied {} Kubernetes service changes, {} services registered", changes, services.size());
         }
     }
     
+    ServiceInfo toServiceInfo(Service k8sService) {
+        String serviceName = k8sService.getMetadata().getName();
+        List<ServicePort> ports = k8sService.getSpec().getPorts();
+        // Prefer the port named "http", otherwise the first one
+        ServicePort primary = ports.stream()
+            .filter(port -> "http".equals(port.getName()))
+            .findFirst()
+            .orElse(ports.get(0));
+        
+        ServiceInfo serviceInfo = new ServiceInfo(
+            serviceName,
+            serviceName + "." + namespace + serviceSuffix,
+            primary.getPort()
+        );
+        
+        // Add Kubernetes metadata
+        Map<String, String> metadata = new ConcurrentHashMap<>();
+        metadata.put("namespace", namespace);
+        metadata.put("uid", k8sService.getMetadata().getUid());
+        metadata.put("ports", ports.stream()
+            .map(port -> (port.getName() != null ? port.getName() : "") + ":" + port.getPort())
+            .collect(Collectors.joining(",")));
+        if (k8sService.getSpec().getClusterIP() != null) {
+            metadata.put("clusterIP", k8sService.getSpec().getClusterIP());
+        }
+        serviceInfo.setMetadata(metadata);
+        return serviceInfo;
+    }
+    
     private boolean isApplicationService(String serviceName) {
         return serviceName.endsWith("-service") || 
                serviceName.equals("api-gateway");
@@ -126,33 +226,53 @@ public class KubernetesServiceRegistry implements ServiceRegistry {
     
     @Override
     public ServiceInfo getService(String serviceName) {
+        return findService(serviceName, RegistryMetrics.SERVICE);
+    }
+    
+    @Override
+    public List<ServiceInfo> getInstances(String serviceName) {
+        return List.of(findService(serviceName, RegistryMetrics.INSTANCES));
+    }
+    
+    private ServiceInfo findService(String serviceName, String operation) {
+        long start = System.nanoTime();
         ServiceInfo service = services.get(serviceName);
         if (service == null) {
             // Try to discover the service dynamically
-            Service k8sService = kubernetesClient
-                .services()
-                .inNamespace(namespace)
-                .withName(serviceName)
-                .get();
+            Service k8sService = informer != null
+                ? informer.getStore().getByKey(namespace + "/" + serviceName)
+                : null;
+            if (k8sService == null) {
+                k8sService = kubernetesClient
+                    .services()
+                    .inNamespace(namespace)
+                    .withName(serviceName)
+                    .get();
+            }
             
             if (k8sService != null) {
-                Integer port = k8sService.getSpec().getPorts().get(0).getPort();
-                service = new ServiceInfo(
-                    serviceName,
-                    serviceName + "." + namespace + serviceSuffix,
-                    port
-                );
+                service = toServiceInfo(k8sService);
                 services.put(serviceName, service);
             } else {
+                RegistryMetrics.recordLookup(REGISTRY_TYPE, operation, start, false);
                 throw new RuntimeException("Service not found in Kubernetes: " + serviceName);
             }
         }
+        RegistryMetrics.recordLookup(REGISTRY_TYPE, operation, start, true);
         return service;
     }
     
     @Override
     public Map<String, ServiceInfo> getAllServices() {
-        return new ConcurrentHashMap<>(services);
+        long start = System.nanoTime();
+        Map<String, ServiceInfo> all = new ConcurrentHashMap<>(services);
+        RegistryMetrics.recordLookup(REGISTRY_TYPE, RegistryMetrics.ALL_SERVICES, start, true);
+        return all;
+    }
+    
+    @Override
+    public boolean hasService(String serviceName) {
+        return services.containsKey(serviceName);
     }
     
     @Override
@@ -173,10 +293,15 @@ public class KubernetesServiceRegistry implements ServiceRegistry {
     @Override
     public boolean isHealthy(String serviceName) {
         ServiceInfo service = getService(serviceName);
+        if (service.isEjected()) {
+            // Ejected by outlier detection, no need to probe
+            return false;
+        }
         try {
             String healthUrl = String.format("http://%s:%d/actuator/health", 
                 service.getUrl(), service.getPort());
             
+            long start = System.nanoTime();
             Boolean healthy = webClient.get()
                 .uri(healthUrl)
                 .retrieve()
@@ -186,6 +311,7 @@ public class KubernetesServiceRegistry implements ServiceRegistry {
                 .onErrorReturn(false)
                 .block();
             
+            RegistryMetrics.recordHealthProbe(REGISTRY_TYPE, serviceName, start, Boolean.TRUE.equals(healthy));
             return Boolean.TRUE.equals(healthy);
         } catch (Exception e) {
             log.debug("Health check failed for Kubernetes service {}: {}", 
@@ -203,7 +329,12 @@ public class KubernetesServiceRegistry implements ServiceRegistry {
     
     @jakarta.annotation.PreDestroy
     public void shutdown() {
-        if (kubernetesClient != null) {
+        shuttingDown = true;
+        if (informer != null) {
+            informer.close();
+        }
+        scheduler.shutdownNow();
+        if (kubernetesClient != null && ownsClient) {
             kubernetesClient.close();
         }
     }
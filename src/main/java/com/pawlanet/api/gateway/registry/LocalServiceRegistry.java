@@ -1,13 +1,13 @@
 package com.pawlanet.api.gateway.registry;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import jakarta.annotation.PostConstruct;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -17,9 +17,10 @@ import javax.management.ServiceNotFoundException;
  * Service Registry for local development (localhost)
  */
 @Slf4j
-@Component
 public class LocalServiceRegistry implements ServiceRegistry {
     
+    private static final String REGISTRY_TYPE = "local";
+    
     private final Map<String, ServiceInfo> services = new ConcurrentHashMap<>();
     private final WebClient webClient = WebClient.create();
     
@@ -40,17 +41,37 @@ public class LocalServiceRegistry implements ServiceRegistry {
     
     @Override
     public ServiceInfo getService(String serviceName) {
+        return findService(serviceName, RegistryMetrics.SERVICE);
+    }
+    
+    private ServiceInfo findService(String serviceName, String operation) {
+        long start = System.nanoTime();
         ServiceInfo service = services.get(serviceName);
         if (service == null) {
+            RegistryMetrics.recordLookup(REGISTRY_TYPE, operation, start, false);
             log.warn("Service {} not found in local registry", serviceName);
             throw new RuntimeException("Service not found: " + serviceName);
         }
+        RegistryMetrics.recordLookup(REGISTRY_TYPE, operation, start, true);
         return service;
     }
     
     @Override
     public Map<String, ServiceInfo> getAllServices() {
-        return new ConcurrentHashMap<>(services);
+        long start = System.nanoTime();
+        Map<String, ServiceInfo> all = new ConcurrentHashMap<>(services);
+        RegistryMetrics.recordLookup(REGISTRY_TYPE, RegistryMetrics.ALL_SERVICES, start, true);
+        return all;
+    }
+    
+    @Override
+    public List<ServiceInfo> getInstances(String serviceName) {
+        return List.of(findService(serviceName, RegistryMetrics.INSTANCES));
+    }
+    
+    @Override
+    public boolean hasService(String serviceName) {
+        return services.containsKey(serviceName);
     }
     
     @Override
@@ -71,7 +92,12 @@ public class LocalServiceRegistry implements ServiceRegistry {
     @Override
     public boolean isHealthy(String serviceName) {
         ServiceInfo service = getService(serviceName);
+        if (service.isEjected()) {
+            // Ejected by outlier detection, no need to probe
+            return false;
+        }
         try {
+            long start = System.nanoTime();
             Boolean healthy = webClient.get()
                 .uri(service.getHealthCheckUrl())
                 .retrieve()
@@ -81,6 +107,7 @@ public class LocalServiceRegistry implements ServiceRegistry {
                 .onErrorReturn(false)
                 .block();
             
+            RegistryMetrics.recordHealthProbe(REGISTRY_TYPE, serviceName, start, Boolean.TRUE.equals(healthy));
             return Boolean.TRUE.equals(healthy);
         } catch (Exception e) {
             log.error("Health check failed for service {}: {}", serviceName, e.getMessage());
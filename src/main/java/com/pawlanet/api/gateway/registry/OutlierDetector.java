@@ -0,0 +1,194 @@
+package com.pawlanet.api.gateway.registry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import com.pawlanet.api.gateway.config.GatewayProperties;
+
+import io.micrometer.core.instrument.Metrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Passive outlier detection fed by live gateway traffic.
+ * Tracks consecutive 5xx responses, connect failures and latency per instance
+ * (host:port) and temporarily ejects misbehaving instances from the registry
+ * health view with exponential backoff.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutlierDetector {
+
+    private static final double LATENCY_EWMA_WEIGHT = 0.2;
+
+    private final ServiceRegistry serviceRegistry;
+    private final GatewayProperties properties;
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Record a completed upstream response
+     */
+    public void recordResponse(String host, int port, int statusCode, long latencyMillis) {
+        GatewayProperties.OutlierDetection config = properties.getOutlierDetection();
+        if (!config.isEnabled()) {
+            return;
+        }
+        InstanceStats instance = stats(host, port);
+        String reason = null;
+        boolean compareWithSiblings;
+        synchronized (instance) {
+            instance.consecutiveConnectFailures = 0;
+            instance.consecutive5xx = statusCode >= 500 ? instance.consecutive5xx + 1 : 0;
+            instance.latencyEwma = instance.samples == 0 ? latencyMillis
+                : LATENCY_EWMA_WEIGHT * latencyMillis + (1 - LATENCY_EWMA_WEIGHT) * instance.latencyEwma;
+            instance.samples++;
+
+            boolean enoughSamples = instance.samples >= config.getMinLatencySamples();
+            if (instance.consecutive5xx >= config.getConsecutive5xx()) {
+                reason = instance.consecutive5xx + " consecutive 5xx responses";
+            } else if (enoughSamples && config.getLatencyThresholdMs() > 0
+                    && instance.latencyEwma >= config.getLatencyThresholdMs()) {
+                reason = String.format("latency %.0fms", instance.latencyEwma);
+            }
+            // Sibling comparison needs a registry lookup, so only do it periodically
+            compareWithSiblings = reason == null && enoughSamples
+                && instance.samples % config.getMinLatencySamples() == 0;
+        }
+        if (reason == null && compareWithSiblings) {
+            reason = relativeLatencyOutlier(host, port, instance, config);
+        }
+        if (reason != null) {
+            eject(host, port, instance, reason);
+        }
+    }
+
+    /**
+     * Record a failed upstream call (connect failure, timeout, reset)
+     */
+    public void recordFailure(String host, int port, boolean connectFailure) {
+        GatewayProperties.OutlierDetection config = properties.getOutlierDetection();
+        if (!config.isEnabled()) {
+            return;
+        }
+        InstanceStats instance = stats(host, port);
+        String reason = null;
+        synchronized (instance) {
+            instance.consecutive5xx++;
+            if (connectFailure) {
+                instance.consecutiveConnectFailures++;
+            }
+            if (instance.consecutiveConnectFailures >= config.getConsecutiveConnectFailures()) {
+                reason = instance.consecutiveConnectFailures + " consecutive connect failures";
+            } else if (instance.consecutive5xx >= config.getConsecutive5xx()) {
+                reason = instance.consecutive5xx + " consecutive failures";
+            }
+        }
+        if (reason != null) {
+            eject(host, port, instance, reason);
+        }
+    }
+
+    private InstanceStats stats(String host, int port) {
+        return stats.computeIfAbsent(host + ":" + port, key -> new InstanceStats());
+    }
+
+    private String relativeLatencyOutlier(String host, int port, InstanceStats instance,
+                                          GatewayProperties.OutlierDetection config) {
+        Map.Entry<String, ServiceRegistry.ServiceInfo> target = findInstance(host, port);
+        if (target == null) {
+            return null;
+        }
+        List<Double> latencies = new ArrayList<>();
+        for (ServiceRegistry.ServiceInfo sibling : serviceRegistry.getInstances(target.getKey())) {
+            InstanceStats other = stats.get(sibling.getUrl() + ":" + sibling.getPort());
+            if (other != null && other != instance && other.samples >= config.getMinLatencySamples()) {
+                latencies.add(other.latencyEwma);
+            }
+        }
+        if (latencies.size() < 2) {
+            return null;
+        }
+        Collections.sort(latencies);
+        double median = latencies.get(latencies.size() / 2);
+        double latency = instance.latencyEwma;
+        if (median > 0 && latency >= median * config.getLatencyOutlierFactor()) {
+            return String.format("latency %.0fms against sibling median %.0fms", latency, median);
+        }
+        return null;
+    }
+
+    private void eject(String host, int port, InstanceStats instance, String reason) {
+        GatewayProperties.OutlierDetection config = properties.getOutlierDetection();
+        Map.Entry<String, ServiceRegistry.ServiceInfo> target = findInstance(host, port);
+        if (target == null) {
+            return;
+        }
+        String serviceName = target.getKey();
+        ServiceRegistry.ServiceInfo serviceInfo = target.getValue();
+        if (serviceInfo.isEjected()) {
+            return;
+        }
+
+        List<ServiceRegistry.ServiceInfo> instances = serviceRegistry.getInstances(serviceName);
+        long ejected = instances.stream().filter(ServiceRegistry.ServiceInfo::isEjected).count();
+        // Always allow one ejection, otherwise single-instance services could never be ejected
+        if (ejected > 0 && (ejected + 1) * 100 > (long) instances.size() * config.getMaxEjectionPercent()) {
+            log.debug("Not ejecting {}:{} of {}, max ejection percent reached", host, port, serviceName);
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long duration;
+        synchronized (instance) {
+            // Forget earlier ejections once the instance has behaved for a full max ejection period
+            if (now - instance.lastEjectedUntil > config.getMaxEjectionMs()) {
+                instance.ejectionCount = 0;
+            }
+            duration = Math.min(config.getBaseEjectionMs() << Math.min(instance.ejectionCount, 20),
+                config.getMaxEjectionMs());
+            instance.ejectionCount++;
+            instance.lastEjectedUntil = now + duration;
+            instance.consecutive5xx = 0;
+            instance.consecutiveConnectFailures = 0;
+            instance.samples = 0;
+        }
+        serviceInfo.setEjectedUntil(now + duration);
+
+        Metrics.counter("gateway.outlier.ejections", "service", serviceName).increment();
+        log.warn("Ejecting instance {}:{} of service {} for {}ms: {}", host, port, serviceName, duration, reason);
+    }
+
+    private Map.Entry<String, ServiceRegistry.ServiceInfo> findInstance(String host, int port) {
+        Map<String, ServiceRegistry.ServiceInfo> services = serviceRegistry.getAllServices();
+        for (String serviceName : services.keySet()) {
+            for (ServiceRegistry.ServiceInfo instance : serviceRegistry.getInstances(serviceName)) {
+                if (host.equals(instance.getUrl()) && port == instance.getPort()) {
+                    return Map.entry(serviceName, instance);
+                }
+            }
+        }
+        // Routes address services by name; map that to the service when it has a single instance
+        if (services.containsKey(host)) {
+            List<ServiceRegistry.ServiceInfo> instances = serviceRegistry.getInstances(host);
+            if (instances.size() == 1) {
+                return Map.entry(host, instances.get(0));
+            }
+        }
+        return null;
+    }
+
+    private static class InstanceStats {
+        private int consecutive5xx;
+        private int consecutiveConnectFailures;
+        private double latencyEwma;
+        private long samples;
+        private int ejectionCount;
+        private long lastEjectedUntil;
+    }
+}
@@ -0,0 +1,138 @@
+package com.pawlanet.api.gateway.registry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.stereotype.Component;
+
+import com.pawlanet.api.gateway.config.GatewayProperties;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Picks one instance of a service from the registry.
+ * Instances ejected by outlier detection are skipped unless every instance is
+ * ejected, in which case all of them are used again rather than failing.
+ * Supports round robin and consistent hashing with bounded loads, where a key
+ * sticks to one instance unless that instance already carries more than
+ * {@code load-factor} times the average in-flight load.
+ */
+@Component
+@RequiredArgsConstructor
+public class RegistryLoadBalancer {
+
+    public enum Strategy {
+        ROUND_ROBIN,
+        CONSISTENT_HASH
+    }
+
+    private static final long ADDRESS_MATCH_TTL_MS = 1000;
+
+    private final ServiceRegistry serviceRegistry;
+    private final GatewayProperties properties;
+    private final Map<String, AtomicInteger> positions = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, ConsistentHashRing> rings = new ConcurrentHashMap<>();
+    private final Map<String, AddressMatch> addressMatches = new ConcurrentHashMap<>();
+
+    private record AddressMatch(String serviceName, long resolvedAt) {
+    }
+
+    /**
+     * Find the registered service a route host:port points at, or null
+     */
+    public String resolveServiceName(String host, int port) {
+        // Routes normally address a service by name
+        if (serviceRegistry.hasService(host)) {
+            return host;
+        }
+        // Otherwise match an instance address; the answer is kept briefly so routes
+        // outside the registry don't copy and scan it on every request
+        long now = System.currentTimeMillis();
+        AddressMatch match = addressMatches.get(host + ":" + port);
+        if (match == null || now - match.resolvedAt() > ADDRESS_MATCH_TTL_MS) {
+            match = new AddressMatch(findServiceByAddress(host, port), now);
+            addressMatches.put(host + ":" + port, match);
+        }
+        return match.serviceName();
+    }
+
+    private String findServiceByAddress(String host, int port) {
+        for (Map.Entry<String, ServiceRegistry.ServiceInfo> entry : serviceRegistry.getAllServices().entrySet()) {
+            if (host.equals(entry.getValue().getUrl()) && port == entry.getValue().getPort()) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Round robin over the available instances of a service
+     */
+    public ServiceRegistry.ServiceInfo choose(String serviceName) {
+        List<ServiceRegistry.ServiceInfo> candidates = availableInstances(serviceName);
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        int position = positions.computeIfAbsent(serviceName, name -> new AtomicInteger()).getAndIncrement();
+        return candidates.get(Math.floorMod(position, candidates.size()));
+    }
+
+    /**
+     * Consistent hash of the key over the service's instances, bounded by load
+     */
+    public ServiceRegistry.ServiceInfo choose(String serviceName, String hashKey) {
+        List<ServiceRegistry.ServiceInfo> instances = serviceRegistry.getInstances(serviceName);
+        if (instances.size() == 1) {
+            return instances.get(0);
+        }
+        ConsistentHashRing ring = ring(serviceName, instances);
+        boolean allEjected = instances.stream().allMatch(ServiceRegistry.ServiceInfo::isEjected);
+        long capacity = capacity(instances);
+        return ring.select(hashKey, instance -> (allEjected || !instance.isEjected())
+            && inFlight(instance).get() < capacity);
+    }
+
+    /**
+     * Mark a request as started on an instance, until {@link #release}
+     */
+    public void acquire(ServiceRegistry.ServiceInfo instance) {
+        inFlight(instance).incrementAndGet();
+    }
+
+    public void release(ServiceRegistry.ServiceInfo instance) {
+        inFlight(instance).decrementAndGet();
+    }
+
+    List<ServiceRegistry.ServiceInfo> availableInstances(String serviceName) {
+        List<ServiceRegistry.ServiceInfo> instances = serviceRegistry.getInstances(serviceName);
+        List<ServiceRegistry.ServiceInfo> available = instances.stream()
+            .filter(instance -> !instance.isEjected())
+            .toList();
+        return available.isEmpty() ? instances : available;
+    }
+
+    private ConsistentHashRing ring(String serviceName, List<ServiceRegistry.ServiceInfo> instances) {
+        ConsistentHashRing ring = rings.get(serviceName);
+        // Only rebuilt when the instance set changes, not on every request
+        if (ring == null || !ring.getInstances().equals(instances)) {
+            ring = new ConsistentHashRing(instances, properties.getLoadBalancing().getVirtualNodes());
+            rings.put(serviceName, ring);
+        }
+        return ring;
+    }
+
+    private long capacity(List<ServiceRegistry.ServiceInfo> instances) {
+        long total = 1; // the request being placed
+        for (ServiceRegistry.ServiceInfo instance : instances) {
+            total += inFlight(instance).get();
+        }
+        return (long) Math.ceil(properties.getLoadBalancing().getLoadFactor() * total / instances.size());
+    }
+
+    private AtomicInteger inFlight(ServiceRegistry.ServiceInfo instance) {
+        return inFlight.computeIfAbsent(ConsistentHashRing.instanceKey(instance), key -> new AtomicInteger());
+    }
+}
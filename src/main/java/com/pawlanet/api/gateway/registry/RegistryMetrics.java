@@ -0,0 +1,41 @@
+package com.pawlanet.api.gateway.registry;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Lookup and health-probe timers shared by the registry implementations,
+ * tagged with the registry type so environments can be compared. Lookups are
+ * also tagged with the operation, since the load balancer and outlier detection
+ * call getInstances and getAllServices on the request path rather than getService.
+ */
+public final class RegistryMetrics {
+
+    public static final String LOOKUP_TIMER = "gateway.registry.lookup";
+    public static final String HEALTH_PROBE_TIMER = "gateway.registry.health.probe";
+
+    private RegistryMetrics() {
+    }
+
+    static final String SERVICE = "service";
+    static final String INSTANCES = "instances";
+    static final String ALL_SERVICES = "all_services";
+
+    static void recordLookup(String registry, String operation, long startNanos, boolean found) {
+        Timer.builder(LOOKUP_TIMER)
+            .tags("registry", registry, "operation", operation, "outcome", found ? "found" : "not_found")
+            .publishPercentiles(0.5, 0.99)
+            .register(Metrics.globalRegistry)
+            .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    static void recordHealthProbe(String registry, String serviceName, long startNanos, boolean healthy) {
+        Timer.builder(HEALTH_PROBE_TIMER)
+            .tags("registry", registry, "service", serviceName, "outcome", healthy ? "up" : "down")
+            .publishPercentiles(0.5, 0.99)
+            .register(Metrics.globalRegistry)
+            .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -2,6 +2,8 @@ package com.pawlanet.api.gateway.registry;
 
 
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -20,6 +22,13 @@ public interface ServiceRegistry {
      */
     Map<String, ServiceInfo> getAllServices();
     
+    /**
+     * Whether a service is registered, without copying the registry
+     */
+    default boolean hasService(String serviceName) {
+        return getAllServices().containsKey(serviceName);
+    }
+    
     /**
      * Register a new service
      */
@@ -40,6 +49,13 @@ public interface ServiceRegistry {
      */
     String getServiceUrl(String serviceName);
     
+    /**
+     * Get all instances backing a service
+     */
+    default List<ServiceInfo> getInstances(String serviceName) {
+        return List.of(getService(serviceName));
+    }
+    
     @Data
     class ServiceInfo {
         private String name;
@@ -49,6 +65,8 @@ public interface ServiceRegistry {
         private String protocol = "http";
         private boolean secure = false;
         private Map<String, String> metadata;
+        @EqualsAndHashCode.Exclude
+        private volatile long ejectedUntil; // set by passive outlier detection
         
         public ServiceInfo(String name, String url, int port) {
             this.name = name;
@@ -60,5 +78,9 @@ public interface ServiceRegistry {
         public String getFullUrl() {
             return protocol + "://" + url + ":" + port;
         }
+        
+        public boolean isEjected() {
+            return ejectedUntil > System.currentTimeMillis();
+        }
     }
 }
\ No newline at end of file
@@ -1,72 +1,88 @@
 package com.pawlanet.api.gateway.registry;
 
 import io.fabric8.kubernetes.api.model.Service;
-import io.fabric8.kubernetes.client.Watcher;
-import io.fabric8.kubernetes.client.WatcherException;
-import lombok.RequiredArgsConstructor;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Kubernetes Service Watcher for dynamic service discovery
+ * Collects informer events and applies bursts of them to the registry as one batch
  */
 @Slf4j
-@RequiredArgsConstructor
-public class ServiceWatcher implements Watcher<Service> {
-    
+public class ServiceWatcher implements ResourceEventHandler<Service> {
+
     private final KubernetesServiceRegistry registry;
-    
+    private final ScheduledExecutorService scheduler;
+    private final long debounceMillis;
+
+    // Latest state per service name, null marks a deletion
+    private final Map<String, Service> pending = new LinkedHashMap<>();
+    private boolean flushScheduled;
+
+    public ServiceWatcher(KubernetesServiceRegistry registry, ScheduledExecutorService scheduler,
+                          long debounceMillis) {
+        this.registry = registry;
+        this.scheduler = scheduler;
+        this.debounceMillis = debounceMillis;
+    }
+
     @Override
-    public void eventReceived(Action action, Service service) {
-        String serviceName = service.getMetadata().getName();
-        
-        switch (action) {
-            case ADDED:
-                log.info("Kubernetes service added: {}", serviceName);
-                handleServiceAdded(service);
-                break;
-            case MODIFIED:
-                log.info("Kubernetes service modified: {}", serviceName);
-                handleServiceModified(service);
-                break;
-            case DELETED:
-                log.info("Kubernetes service deleted: {}", serviceName);
-                handleServiceDeleted(service);
-                break;
-            default:
-                log.debug("Unhandled action {} for service {}", action, serviceName);
-        }
+    public void onAdd(Service service) {
+        log.debug("Kubernetes service added: {}", service.getMetadata().getName());
+        enqueue(service.getMetadata().getName(), service);
     }
-    
+
     @Override
-    public void onClose(WatcherException e) {
-        if (e != null) {
-            log.error("Kubernetes watcher closed with error", e);
-        } else {
-            log.info("Kubernetes watcher closed");
-        }
+    public void onUpdate(Service oldService, Service newService) {
+        log.debug("Kubernetes service modified: {}", newService.getMetadata().getName());
+        enqueue(newService.getMetadata().getName(), newService);
     }
-    
-    private void handleServiceAdded(Service service) {
-        String serviceName = service.getMetadata().getName();
-        Integer port = service.getSpec().getPorts().get(0).getPort();
-        String namespace = service.getMetadata().getNamespace();
-        
-        ServiceRegistry.ServiceInfo serviceInfo = new ServiceRegistry.ServiceInfo(
-            serviceName,
-            serviceName + "." + namespace + ".svc.cluster.local",
-            port
-        );
-        
-        registry.registerService(serviceName, serviceInfo);
+
+    @Override
+    public void onDelete(Service service, boolean deletedFinalStateUnknown) {
+        log.debug("Kubernetes service deleted: {}", service.getMetadata().getName());
+        enqueue(service.getMetadata().getName(), null);
     }
-    
-    private void handleServiceModified(Service service) {
-        // Re-register with updated information
-        handleServiceAdded(service);
+
+    private synchronized void enqueue(String serviceName, Service service) {
+        pending.put(serviceName, service);
+        if (!flushScheduled) {
+            flushScheduled = true;
+            scheduler.schedule(this::flush, debounceMillis, TimeUnit.MILLISECONDS);
+        }
     }
-    
-    private void handleServiceDeleted(Service service) {
-        String serviceName = service.getMetadata().getName();
-        registry.deregisterService(serviceName);
+
+    /**
+     * Apply all pending events to the registry
+     */
+    public void flush() {
+        List<Service> updated = new ArrayList<>();
+        List<String> deleted = new ArrayList<>();
+        synchronized (this) {
+            pending.forEach((name, service) -> {
+                if (service != null) {
+                    updated.add(service);
+                } else {
+                    deleted.add(name);
+                }
+            });
+            pending.clear();
+            flushScheduled = false;
+        }
+        if (updated.isEmpty() && deleted.isEmpty()) {
+            return;
+        }
+        try {
+            registry.applyUpdates(updated, deleted);
+        } catch (Exception e) {
+            log.error("Failed to apply Kubernetes service updates", e);
+        }
     }
-}
\ No newline at end of file
+}
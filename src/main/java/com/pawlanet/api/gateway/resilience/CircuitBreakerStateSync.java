@@ -0,0 +1,262 @@
+package com.pawlanet.api.gateway.resilience;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pawlanet.api.gateway.config.GatewayProperties;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker.State;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Shares circuit-breaker state transitions between gateway replicas through
+ * Redis pub/sub. A peer's OPEN is only adopted once confirmed locally (or by
+ * a quorum of peers), and half-open probing is limited to a few replicas by
+ * leasing probe slots in Redis. Open breakers are held open past their wait
+ * duration; only a replica that wins a probe slot moves its breaker to HALF_OPEN.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "gateway.circuit-breaker-sync", name = "enabled", havingValue = "true")
+public class CircuitBreakerStateSync {
+
+    private static final String PROBE_KEY_PREFIX = "gateway:circuit-breaker:probe:";
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final GatewayProperties properties;
+
+    // Transitions applied on behalf of peers must not be re-published
+    private final ThreadLocal<Boolean> applyingRemote = ThreadLocal.withInitial(() -> false);
+    // Set while entering HALF_OPEN with a probe slot already leased
+    private final ThreadLocal<Boolean> leasedProbe = ThreadLocal.withInitial(() -> false);
+    private final Map<String, Map<String, Long>> peerOpenReports = new ConcurrentHashMap<>();
+    private final Map<String, Integer> heldProbeSlots = new ConcurrentHashMap<>();
+    private final Map<String, Disposable> scheduledProbes = new ConcurrentHashMap<>();
+    private String instanceId;
+    private Disposable subscription;
+
+    public record StateTransitionMessage(String instanceId, String circuitBreaker,
+                                         State fromState, State toState, long timestamp) {
+    }
+
+    @PostConstruct
+    public void init() {
+        GatewayProperties.CircuitBreakerSync config = properties.getCircuitBreakerSync();
+        instanceId = config.getInstanceId() != null ? config.getInstanceId() : UUID.randomUUID().toString();
+
+        circuitBreakerRegistry.getAllCircuitBreakers().forEach(this::attach);
+        circuitBreakerRegistry.getEventPublisher()
+            .onEntryAdded(event -> attach(event.getAddedEntry()))
+            .onEntryReplaced(event -> attach(event.getNewEntry()));
+
+        subscription = redisTemplate.listenToChannel(config.getChannel())
+            .flatMap(message -> Mono.fromCallable(() ->
+                    objectMapper.readValue(message.getMessage(), StateTransitionMessage.class))
+                .onErrorResume(e -> {
+                    log.warn("Ignoring malformed circuit breaker message: {}", e.getMessage());
+                    return Mono.empty();
+                }))
+            .filter(message -> !instanceId.equals(message.instanceId()))
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                .maxBackoff(Duration.ofSeconds(30)))
+            .subscribe(this::onPeerTransition);
+
+        log.info("Circuit breaker state sync started on channel {} as {}", config.getChannel(), instanceId);
+    }
+
+    private void attach(CircuitBreaker circuitBreaker) {
+        circuitBreaker.getEventPublisher().onStateTransition(event -> onLocalTransition(circuitBreaker,
+            event.getStateTransition().getFromState(), event.getStateTransition().getToState()));
+        // Replaced breakers come back in the state of the one they replace
+        if (circuitBreaker.getState() == State.OPEN) {
+            holdOpen(circuitBreaker);
+        }
+    }
+
+    private void onLocalTransition(CircuitBreaker circuitBreaker, State from, State to) {
+        if (applyingRemote.get() || from == to) {
+            return;
+        }
+        String name = circuitBreaker.getName();
+        publish(new StateTransitionMessage(instanceId, name, from, to, System.currentTimeMillis()));
+
+        if (from == State.HALF_OPEN) {
+            releaseProbeSlot(name);
+        }
+        if (to == State.OPEN) {
+            holdOpen(circuitBreaker);
+        } else if (to == State.HALF_OPEN && !leasedProbe.get()) {
+            // Only reached when a hold ran out or the breaker was moved by hand
+            acquireProbeSlot(name).subscribe(acquired -> {
+                if (!acquired && circuitBreaker.getState() == State.HALF_OPEN) {
+                    log.debug("Another replica is probing {}, staying open", name);
+                    applyRemote(circuitBreaker::transitionToOpenState);
+                }
+            });
+        }
+    }
+
+    /**
+     * Keep the breaker OPEN instead of letting resilience4j move it to HALF_OPEN after
+     * its wait duration, and try for a probe slot once that wait is over. The hold
+     * outlasts the wait by the probe lease, so a stalled sync still lets it recover.
+     */
+    private void holdOpen(CircuitBreaker circuitBreaker) {
+        String name = circuitBreaker.getName();
+        Duration wait = Duration.ofMillis(
+            circuitBreaker.getCircuitBreakerConfig().getWaitIntervalFunctionInOpenState().apply(1));
+        Duration lease = Duration.ofMillis(properties.getCircuitBreakerSync().getProbeLeaseMs());
+        applyRemote(() -> circuitBreaker.transitionToOpenStateUntil(Instant.now().plus(wait).plus(lease)));
+
+        Disposable previous = scheduledProbes.put(name, Mono.delay(wait).subscribe(tick -> probe(name)));
+        if (previous != null) {
+            previous.dispose();
+        }
+    }
+
+    private void probe(String name) {
+        if (currentState(name) != State.OPEN) {
+            return;
+        }
+        acquireProbeSlot(name).subscribe(acquired -> {
+            CircuitBreaker circuitBreaker = circuitBreakerRegistry.find(name).orElse(null);
+            if (circuitBreaker == null || circuitBreaker.getState() != State.OPEN) {
+                // A peer's successful probe closed it in the meantime
+                releaseProbeSlot(name);
+                return;
+            }
+            if (!acquired) {
+                log.debug("Another replica is probing {}, staying open", name);
+                holdOpen(circuitBreaker);
+                return;
+            }
+            leasedProbe.set(true);
+            try {
+                circuitBreaker.transitionToHalfOpenState();
+            } finally {
+                leasedProbe.set(false);
+            }
+        });
+    }
+
+    private State currentState(String name) {
+        return circuitBreakerRegistry.find(name).map(CircuitBreaker::getState).orElse(null);
+    }
+
+    private void onPeerTransition(StateTransitionMessage message) {
+        String name = message.circuitBreaker();
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.find(name).orElse(null);
+        if (circuitBreaker == null) {
+            return;
+        }
+
+        if (message.toState() == State.OPEN) {
+            Map<String, Long> reports = peerOpenReports.computeIfAbsent(name, key -> new ConcurrentHashMap<>());
+            reports.put(message.instanceId(), message.timestamp());
+            if (circuitBreaker.getState() == State.CLOSED && isOpenConfirmed(circuitBreaker, reports)) {
+                log.info("Adopting OPEN state for {} reported by {}", name, message.instanceId());
+                applyRemote(circuitBreaker::transitionToOpenState);
+                holdOpen(circuitBreaker);
+            }
+        } else if (message.toState() == State.CLOSED) {
+            peerOpenReports.remove(name);
+            // Recovery is only trusted when the peer actually probed the upstream
+            if (message.fromState() == State.HALF_OPEN && circuitBreaker.getState() == State.OPEN) {
+                log.info("Adopting CLOSED state for {} after successful probe by {}", name, message.instanceId());
+                applyRemote(circuitBreaker::transitionToClosedState);
+            }
+        }
+    }
+
+    private boolean isOpenConfirmed(CircuitBreaker circuitBreaker, Map<String, Long> reports) {
+        GatewayProperties.CircuitBreakerSync config = properties.getCircuitBreakerSync();
+        long cutoff = System.currentTimeMillis() - config.getPeerReportTtlMs();
+        reports.values().removeIf(timestamp -> timestamp < cutoff);
+
+        int localFailures = circuitBreaker.getMetrics().getNumberOfFailedCalls();
+        return localFailures >= config.getConfirmationFailures() || reports.size() >= config.getOpenQuorum();
+    }
+
+    private Mono<Boolean> acquireProbeSlot(String name) {
+        GatewayProperties.CircuitBreakerSync config = properties.getCircuitBreakerSync();
+        Duration lease = Duration.ofMillis(config.getProbeLeaseMs());
+        return Flux.range(0, config.getMaxHalfOpenProbers())
+            .concatMap(slot -> redisTemplate.opsForValue()
+                .setIfAbsent(PROBE_KEY_PREFIX + name + ":" + slot, instanceId, lease)
+                .filter(Boolean::booleanValue)
+                .map(acquired -> slot))
+            .next()
+            .doOnNext(slot -> heldProbeSlots.put(name, slot))
+            .map(slot -> true)
+            .defaultIfEmpty(false)
+            // Without Redis every replica falls back to probing on its own
+            .onErrorResume(e -> {
+                log.warn("Could not lease probe slot for {}: {}", name, e.getMessage());
+                return Mono.just(true);
+            });
+    }
+
+    private void releaseProbeSlot(String name) {
+        Integer slot = heldProbeSlots.remove(name);
+        if (slot == null) {
+            return;
+        }
+        String key = PROBE_KEY_PREFIX + name + ":" + slot;
+        redisTemplate.opsForValue().get(key)
+            .filter(instanceId::equals)
+            .flatMap(owner -> redisTemplate.delete(key))
+            .subscribe(deleted -> { }, e -> log.debug("Could not release probe slot {}: {}", key, e.getMessage()));
+    }
+
+    private void publish(StateTransitionMessage message) {
+        try {
+            String payload = objectMapper.writeValueAsString(message);
+            redisTemplate.convertAndSend(properties.getCircuitBreakerSync().getChannel(), payload)
+                .subscribe(receivers -> { },
+                    e -> log.warn("Failed to publish circuit breaker transition for {}: {}",
+                        message.circuitBreaker(), e.getMessage()));
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize circuit breaker transition", e);
+        }
+    }
+
+    private void applyRemote(Runnable transition) {
+        applyingRemote.set(true);
+        try {
+            transition.run();
+        } catch (Exception e) {
+            log.debug("Circuit breaker transition rejected: {}", e.getMessage());
+        } finally {
+            applyingRemote.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        scheduledProbes.values().forEach(Disposable::dispose);
+    }
+}
@@ -0,0 +1,161 @@
+package com.pawlanet.api.gateway.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.pawlanet.api.gateway.config.GatewayProperties;
+
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.netty.http.HttpResources;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Measures Netty event-loop lag and pending work for the server loops.
+ * A probe task is submitted to every loop at a fixed interval; the time until
+ * it runs is the loop's scheduling lag.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EventLoopMonitor {
+
+    private final GatewayProperties properties;
+    // Published once on start; request threads read it while the server is already accepting
+    private volatile List<LoopProbe> probes = List.of();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "event-loop-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // Same global loops the WebFlux server and the gateway HTTP client run on
+        List<LoopProbe> created = new ArrayList<>();
+        for (EventExecutor executor : HttpResources.get().onServer(LoopResources.DEFAULT_NATIVE)) {
+            created.add(new LoopProbe(executor));
+        }
+        probes = List.copyOf(created);
+        long interval = properties.getLoadShedding().getProbeIntervalMs();
+        scheduler.scheduleAtFixedRate(() -> probes.forEach(LoopProbe::probe),
+            interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Event loop monitor started for {} event loops", probes.size());
+    }
+
+    /**
+     * Worst scheduling lag across all loops, in milliseconds
+     */
+    public long getMaxLagMillis() {
+        long max = 0;
+        for (LoopProbe probe : probes) {
+            max = Math.max(max, probe.lagNanos());
+        }
+        return TimeUnit.NANOSECONDS.toMillis(max);
+    }
+
+    /**
+     * Highest number of queued tasks on a single loop
+     */
+    public int getMaxPendingTasks() {
+        int max = 0;
+        for (LoopProbe probe : probes) {
+            max = Math.max(max, probe.pendingTasks());
+        }
+        return max;
+    }
+
+    /**
+     * Queued tasks summed over all loops
+     */
+    public int getTotalPendingTasks() {
+        int total = 0;
+        for (LoopProbe probe : probes) {
+            total += probe.pendingTasks();
+        }
+        return total;
+    }
+
+    /**
+     * Overload level from 0 (healthy) to 3 (severe), derived from lag and
+     * pending tasks relative to the configured thresholds.
+     */
+    public int getOverloadLevel() {
+        GatewayProperties.LoadShedding config = properties.getLoadShedding();
+        return Math.max(
+            level(getMaxLagMillis(), config.getLagThresholdMs()),
+            level(getMaxPendingTasks(), config.getPendingTasksThreshold()));
+    }
+
+    public List<LoopProbe> getProbes() {
+        return probes;
+    }
+
+    private static int level(long value, long threshold) {
+        if (threshold <= 0 || value < threshold) {
+            return 0;
+        }
+        if (value >= threshold * 4) {
+            return 3;
+        }
+        return value >= threshold * 2 ? 2 : 1;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    public static class LoopProbe {
+        private final EventExecutor executor;
+        private volatile boolean inFlight;
+        private volatile long submittedAt;
+        private volatile long lastLagNanos;
+
+        LoopProbe(EventExecutor executor) {
+            this.executor = executor;
+        }
+
+        void probe() {
+            if (inFlight || executor.isShuttingDown()) {
+                // Previous probe has not run yet, lag keeps growing
+                return;
+            }
+            long now = System.nanoTime();
+            submittedAt = now;
+            inFlight = true;
+            executor.execute(() -> {
+                lastLagNanos = System.nanoTime() - now;
+                inFlight = false;
+            });
+        }
+
+        public long lagNanos() {
+            if (inFlight) {
+                return Math.max(lastLagNanos, System.nanoTime() - submittedAt);
+            }
+            return lastLagNanos;
+        }
+
+        public int pendingTasks() {
+            if (executor instanceof SingleThreadEventExecutor singleThread) {
+                return singleThread.pendingTasks();
+            }
+            return 0;
+        }
+
+        public String getName() {
+            return executor.toString();
+        }
+    }
+}
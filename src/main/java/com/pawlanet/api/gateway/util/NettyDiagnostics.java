@@ -0,0 +1,137 @@
+package com.pawlanet.api.gateway.util;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.netty.buffer.PoolArenaMetric;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocatorMetric;
+import io.netty.util.internal.PlatformDependent;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Gauges for the Netty internals the gateway runs on: event-loop lag and
+ * queued tasks, pooled allocator usage and direct memory. Also builds the
+ * point-in-time views shown by the diagnostics endpoint.
+ */
+@Component
+@RequiredArgsConstructor
+public class NettyDiagnostics implements MeterBinder {
+
+    private final EventLoopMonitor eventLoopMonitor;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gateway.eventloop.lag.max", eventLoopMonitor, EventLoopMonitor::getMaxLagMillis)
+            .description("Worst scheduling lag across server event loops")
+            .baseUnit("milliseconds")
+            .register(registry);
+        Gauge.builder("gateway.eventloop.pending.tasks.max", eventLoopMonitor, EventLoopMonitor::getMaxPendingTasks)
+            .description("Most queued tasks on a single server event loop")
+            .register(registry);
+        Gauge.builder("gateway.eventloop.pending.tasks.total", eventLoopMonitor, EventLoopMonitor::getTotalPendingTasks)
+            .description("Queued tasks across all server event loops")
+            .register(registry);
+
+        PooledByteBufAllocatorMetric allocator = PooledByteBufAllocator.DEFAULT.metric();
+        Gauge.builder("gateway.netty.allocator.used", allocator, PooledByteBufAllocatorMetric::usedDirectMemory)
+            .tag("type", "direct")
+            .baseUnit("bytes")
+            .register(registry);
+        Gauge.builder("gateway.netty.allocator.used", allocator, PooledByteBufAllocatorMetric::usedHeapMemory)
+            .tag("type", "heap")
+            .baseUnit("bytes")
+            .register(registry);
+        Gauge.builder("gateway.netty.allocator.active.allocations", allocator,
+                metric -> activeAllocations(metric.directArenas()))
+            .tag("type", "direct")
+            .register(registry);
+        Gauge.builder("gateway.netty.allocator.active.allocations", allocator,
+                metric -> activeAllocations(metric.heapArenas()))
+            .tag("type", "heap")
+            .register(registry);
+
+        // -1 when Netty is not counting its own direct allocations
+        Gauge.builder("gateway.netty.direct.memory.used", PlatformDependent::usedDirectMemory)
+            .baseUnit("bytes")
+            .register(registry);
+        Gauge.builder("gateway.netty.direct.memory.max", PlatformDependent::maxDirectMemory)
+            .baseUnit("bytes")
+            .register(registry);
+    }
+
+    public Map<String, Object> eventLoops() {
+        List<Map<String, Object>> loops = new ArrayList<>();
+        for (EventLoopMonitor.LoopProbe probe : eventLoopMonitor.getProbes()) {
+            Map<String, Object> loop = new LinkedHashMap<>();
+            loop.put("name", probe.getName());
+            loop.put("lagMs", probe.lagNanos() / 1_000_000.0);
+            loop.put("pendingTasks", probe.pendingTasks());
+            loops.add(loop);
+        }
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("overloadLevel", eventLoopMonitor.getOverloadLevel());
+        view.put("maxLagMs", eventLoopMonitor.getMaxLagMillis());
+        view.put("totalPendingTasks", eventLoopMonitor.getTotalPendingTasks());
+        view.put("loops", loops);
+        return view;
+    }
+
+    public Map<String, Object> allocator() {
+        PooledByteBufAllocatorMetric metric = PooledByteBufAllocator.DEFAULT.metric();
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("usedDirectMemory", metric.usedDirectMemory());
+        view.put("usedHeapMemory", metric.usedHeapMemory());
+        view.put("chunkSize", metric.chunkSize());
+        view.put("threadLocalCaches", metric.numThreadLocalCaches());
+        view.put("directArenas", arenas(metric.directArenas()));
+        view.put("heapArenas", arenas(metric.heapArenas()));
+        return view;
+    }
+
+    public Map<String, Object> directMemory() {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("nettyUsed", PlatformDependent.usedDirectMemory());
+        view.put("nettyMax", PlatformDependent.maxDirectMemory());
+        // JVM view also covers buffers allocated outside Netty
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) {
+                view.put("jvmBufferCount", pool.getCount());
+                view.put("jvmMemoryUsed", pool.getMemoryUsed());
+                view.put("jvmTotalCapacity", pool.getTotalCapacity());
+            }
+        }
+        return view;
+    }
+
+    private List<Map<String, Object>> arenas(List<PoolArenaMetric> arenas) {
+        List<Map<String, Object>> views = new ArrayList<>();
+        for (PoolArenaMetric arena : arenas) {
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("threadCaches", arena.numThreadCaches());
+            view.put("activeAllocations", arena.numActiveAllocations());
+            view.put("activeBytes", arena.numActiveBytes());
+            view.put("allocations", arena.numAllocations());
+            view.put("deallocations", arena.numDeallocations());
+            views.add(view);
+        }
+        return views;
+    }
+
+    private static long activeAllocations(List<PoolArenaMetric> arenas) {
+        long total = 0;
+        for (PoolArenaMetric arena : arenas) {
+            total += arena.numActiveAllocations();
+        }
+        return total;
+    }
+}
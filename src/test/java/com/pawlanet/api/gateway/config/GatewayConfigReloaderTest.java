@@ -0,0 +1,178 @@
+package com.pawlanet.api.gateway.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.autoconfigure.web.reactive.WebFluxProperties;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.cloud.gateway.filter.factory.AddRequestHeaderGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.SetStatusGatewayFilterFactory;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class GatewayConfigReloaderTest {
+
+	private final org.springframework.cloud.gateway.config.GatewayProperties routeProperties =
+		new org.springframework.cloud.gateway.config.GatewayProperties();
+	private final GatewayProperties gatewayProperties = new GatewayProperties();
+	private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final List<Object> events = new ArrayList<>();
+
+	private GatewayConfigReloader reloader;
+
+	@BeforeEach
+	void setUp() {
+		reloader = new GatewayConfigReloader(routeProperties, gatewayProperties, circuitBreakerRegistry,
+			List.of(new PathRoutePredicateFactory(new WebFluxProperties())),
+			List.of(new AddRequestHeaderGatewayFilterFactory(), new SetStatusGatewayFilterFactory()),
+			new StaticListableBeanFactory().getBeanProvider(ReactiveStringRedisTemplate.class),
+			new ConfigurationService(new StaticListableBeanFactory(), DefaultConversionService::getSharedInstance,
+				() -> null),
+			events::add, meterRegistry);
+	}
+
+	@Test
+	void partialGatewaySectionKeepsEverythingElse() {
+		gatewayProperties.getLoadShedding().setLagThresholdMs(77);
+		gatewayProperties.getEtag().setMaxEntries(42);
+		gatewayProperties.setServices(Map.of("auth-service", new GatewayProperties.Service()));
+		GatewayProperties.LoadShedding liveLoadShedding = gatewayProperties.getLoadShedding();
+
+		reloader.reload("""
+			gateway:
+			  rate-limit:
+			    default-limit: 5
+			""", "test");
+
+		assertThat(gatewayProperties.getRateLimit().getDefaultLimit()).isEqualTo(5);
+		assertThat(gatewayProperties.getRateLimit().getBurstCapacity()).isEqualTo(200);
+		assertThat(gatewayProperties.getLoadShedding().getLagThresholdMs()).isEqualTo(77);
+		assertThat(gatewayProperties.getEtag().getMaxEntries()).isEqualTo(42);
+		assertThat(gatewayProperties.getServices()).containsOnlyKeys("auth-service");
+		// The live section was not mutated in place
+		assertThat(liveLoadShedding.getLagThresholdMs()).isEqualTo(77);
+	}
+
+	@Test
+	void validRoutesAreSwappedAndRefreshed() {
+		reloader.reload("""
+			spring:
+			  cloud:
+			    gateway:
+			      server:
+			        webflux:
+			          routes:
+			            - id: post-service
+			              uri: http://post-service:8083
+			              predicates:
+			                - Path=/api/v1/posts/**
+			              filters:
+			                - AddRequestHeader=X-Reloaded, true
+			""", "test");
+
+		assertThat(routeProperties.getRoutes()).extracting(RouteDefinition::getId).containsExactly("post-service");
+		assertThat(events).hasSize(1).first().isInstanceOf(RefreshRoutesEvent.class);
+	}
+
+	@Test
+	void invalidDocumentAppliesNothing() {
+		gatewayProperties.getRateLimit().setDefaultLimit(100);
+
+		reloader.reload("""
+			gateway:
+			  rate-limit:
+			    default-limit: 5
+			resilience4j:
+			  circuitbreaker:
+			    instances:
+			      post-service:
+			        failure-rate-threshold: 20
+			spring:
+			  cloud:
+			    gateway:
+			      server:
+			        webflux:
+			          routes:
+			            - id: post-service
+			              uri: http://post-service:8083
+			              predicates:
+			                - Path=/api/v1/posts/**
+			              filters:
+			                - UnknownFilter
+			""", "test");
+
+		assertThat(gatewayProperties.getRateLimit().getDefaultLimit()).isEqualTo(100);
+		assertThat(routeProperties.getRoutes()).isEmpty();
+		assertThat(circuitBreakerRegistry.find("post-service")).isEmpty();
+		assertThat(events).isEmpty();
+		assertThat(meterRegistry.counter("gateway.config.reload.failures", "source", "test", "stage", "validate")
+			.count()).isEqualTo(1);
+	}
+
+	@Test
+	void routeWithInvalidArgumentsAppliesNothing() {
+		gatewayProperties.getRateLimit().setDefaultLimit(100);
+
+		reloader.reload("""
+			gateway:
+			  rate-limit:
+			    default-limit: 5
+			spring:
+			  cloud:
+			    gateway:
+			      server:
+			        webflux:
+			          routes:
+			            - id: post-service
+			              uri: http://post-service:8083
+			              predicates:
+			                - Path=/api/v1/posts/**
+			              filters:
+			                - SetStatus=not-a-status
+			""", "test");
+
+		assertThat(gatewayProperties.getRateLimit().getDefaultLimit()).isEqualTo(100);
+		assertThat(routeProperties.getRoutes()).isEmpty();
+		assertThat(events).isEmpty();
+		assertThat(meterRegistry.counter("gateway.config.reload.failures", "source", "test", "stage", "validate")
+			.count()).isEqualTo(1);
+		assertThat(meterRegistry.timer("gateway.config.reload", "source", "test", "outcome", "failure").count())
+			.isEqualTo(1);
+	}
+
+	@Test
+	void replacedCircuitBreakerKeepsStateAndTags() {
+		CircuitBreaker original = circuitBreakerRegistry.circuitBreaker("post-service",
+			CircuitBreakerConfig.ofDefaults(), Map.of("team", "posts"));
+		original.transitionToOpenState();
+
+		reloader.reload("""
+			resilience4j:
+			  circuitbreaker:
+			    instances:
+			      post-service:
+			        failure-rate-threshold: 20
+			""", "test");
+
+		CircuitBreaker replaced = circuitBreakerRegistry.circuitBreaker("post-service");
+		assertThat(replaced).isNotSameAs(original);
+		assertThat(replaced.getCircuitBreakerConfig().getFailureRateThreshold()).isEqualTo(20f);
+		assertThat(replaced.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThat(replaced.getTags()).containsEntry("team", "posts");
+	}
+}
@@ -0,0 +1,129 @@
+package com.pawlanet.api.gateway.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.pawlanet.api.gateway.config.GatewayProperties;
+
+import reactor.core.publisher.Flux;
+
+class ETagFilterTest {
+
+	private final AtomicInteger upstreamCalls = new AtomicInteger();
+	private GatewayFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		GatewayProperties properties = new GatewayProperties();
+		properties.getEtag().setMaxBodyBytes(10);
+		properties.getEtag().setFreshnessMs(60_000);
+		ETagFilter factory = new ETagFilter();
+		ReflectionTestUtils.setField(factory, "properties", properties);
+		factory.init();
+		filter = factory.apply(new ETagFilter.Config());
+	}
+
+	@Test
+	void bodyUnderTheLimitGetsAnETag() {
+		MockServerWebExchange exchange = get("/api/v1/posts/1", null);
+
+		filter.filter(exchange, upstream(HttpStatus.OK, "abc", "def")).block();
+
+		assertThat(exchange.getResponse().getHeaders().getETag()).isNotNull();
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("abcdef");
+	}
+
+	@Test
+	void bodyOverTheLimitPassesThroughWithoutAnETag() {
+		MockServerWebExchange exchange = get("/api/v1/posts", null);
+
+		filter.filter(exchange, upstream(HttpStatus.OK, "abcdef", "ghijk", "lmn")).block();
+
+		assertThat(exchange.getResponse().getHeaders().getETag()).isNull();
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("abcdefghijklmn");
+	}
+
+	@Test
+	void freshEntryIsAnsweredByTheGateway() {
+		String etag = fetch("/api/v1/posts/1");
+
+		MockServerWebExchange revalidation = get("/api/v1/posts/1", etag);
+		filter.filter(revalidation, upstream(HttpStatus.OK, "abcdef")).block();
+
+		assertThat(revalidation.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(revalidation.getResponse().getHeaders().getETag()).isEqualTo(etag);
+		assertThat(upstreamCalls).hasValue(1);
+	}
+
+	@Test
+	void successfulWriteInvalidatesTheResourceButNotItsSiblings() {
+		String etag = fetch("/api/v1/posts/1");
+		String siblingEtag = fetch("/api/v1/posts/10");
+		String childEtag = fetch("/api/v1/posts/1/comments");
+
+		filter.filter(MockServerWebExchange.from(MockServerHttpRequest.method(HttpMethod.PUT, "/api/v1/posts/1")
+			.header("X-User-Id", "user-1")
+			.build()), upstream(HttpStatus.NO_CONTENT)).block();
+
+		assertThat(isAnsweredByGateway("/api/v1/posts/1", etag)).isFalse();
+		assertThat(isAnsweredByGateway("/api/v1/posts/1/comments", childEtag)).isFalse();
+		assertThat(isAnsweredByGateway("/api/v1/posts/10", siblingEtag)).isTrue();
+	}
+
+	@Test
+	void failedWriteKeepsTheEntry() {
+		String etag = fetch("/api/v1/posts/1");
+
+		filter.filter(MockServerWebExchange.from(MockServerHttpRequest.method(HttpMethod.DELETE, "/api/v1/posts/1")
+			.header("X-User-Id", "user-1")
+			.build()), upstream(HttpStatus.CONFLICT)).block();
+
+		assertThat(isAnsweredByGateway("/api/v1/posts/1", etag)).isTrue();
+	}
+
+	private String fetch(String path) {
+		MockServerWebExchange exchange = get(path, null);
+		filter.filter(exchange, upstream(HttpStatus.OK, Integer.toHexString(path.hashCode()))).block();
+		String etag = exchange.getResponse().getHeaders().getETag();
+		assertThat(etag).isNotNull();
+		return etag;
+	}
+
+	private boolean isAnsweredByGateway(String path, String etag) {
+		int before = upstreamCalls.get();
+		MockServerWebExchange exchange = get(path, etag);
+		filter.filter(exchange, upstream(HttpStatus.OK, Integer.toHexString(path.hashCode()))).block();
+		return upstreamCalls.get() == before;
+	}
+
+	private MockServerWebExchange get(String path, String ifNoneMatch) {
+		MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path).header("X-User-Id", "user-1");
+		if (ifNoneMatch != null) {
+			request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+		}
+		return MockServerWebExchange.from(request.build());
+	}
+
+	private GatewayFilterChain upstream(HttpStatus status, String... chunks) {
+		return exchange -> {
+			upstreamCalls.incrementAndGet();
+			exchange.getResponse().setStatusCode(status);
+			return exchange.getResponse().writeWith(Flux.fromArray(chunks)
+				.map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8))));
+		};
+	}
+}
@@ -0,0 +1,150 @@
+package com.pawlanet.api.gateway.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pawlanet.api.gateway.config.GatewayProperties;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class IdempotencyFilterTest {
+
+	private static final String REDIS_KEY = "idempotency:user-1:key-1";
+
+	private final Map<String, String> store = new ConcurrentHashMap<>();
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final AtomicInteger upstreamCalls = new AtomicInteger();
+	private GatewayFilter filter;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+		ReactiveValueOperations<String, String> values = mock(ReactiveValueOperations.class);
+		when(redisTemplate.opsForValue()).thenReturn(values);
+		when(values.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenAnswer(invocation ->
+			Mono.fromSupplier(() -> store.putIfAbsent(invocation.getArgument(0), invocation.getArgument(1)) == null));
+		when(values.set(anyString(), anyString(), any(Duration.class))).thenAnswer(invocation -> Mono.fromSupplier(() -> {
+			store.put(invocation.getArgument(0), invocation.getArgument(1));
+			return true;
+		}));
+		when(values.get(anyString())).thenAnswer(invocation ->
+			Mono.fromSupplier(() -> store.get(invocation.<String>getArgument(0))));
+		when(redisTemplate.delete(anyString())).thenAnswer(invocation ->
+			Mono.fromSupplier(() -> store.remove(invocation.<String>getArgument(0)) != null ? 1L : 0L));
+
+		GatewayProperties properties = new GatewayProperties();
+		properties.getIdempotency().setMaxBodyBytes(10);
+		properties.getIdempotency().setPollIntervalMs(20);
+		IdempotencyFilter factory = new IdempotencyFilter();
+		ReflectionTestUtils.setField(factory, "redisTemplate", redisTemplate);
+		ReflectionTestUtils.setField(factory, "objectMapper", objectMapper);
+		ReflectionTestUtils.setField(factory, "properties", properties);
+		filter = factory.apply(new IdempotencyFilter.Config());
+	}
+
+	@Test
+	void smallBodyIsStoredAndWritten() throws Exception {
+		MockServerWebExchange exchange = exchange("/api/v1/posts");
+
+		filter.filter(exchange, upstream(HttpStatus.CREATED, "abc", "def")).block();
+
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("abcdef");
+		IdempotencyFilter.StoredResponse stored = stored();
+		assertThat(stored.status()).isEqualTo(201);
+		assertThat(new String(stored.body(), StandardCharsets.UTF_8)).isEqualTo("abcdef");
+	}
+
+	@Test
+	void oversizedChunkedBodyStreamsThroughAndReleasesTheKey() {
+		MockServerWebExchange exchange = exchange("/api/v1/posts");
+
+		filter.filter(exchange, upstream(HttpStatus.OK, "abcdef", "ghijk", "lmn")).block();
+
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("abcdefghijklmn");
+		assertThat(store).doesNotContainKey(REDIS_KEY);
+	}
+
+	@Test
+	void emptyBodyIsStored() throws Exception {
+		MockServerWebExchange exchange = exchange("/api/v1/posts");
+
+		filter.filter(exchange, upstream(HttpStatus.NO_CONTENT)).block();
+
+		IdempotencyFilter.StoredResponse stored = stored();
+		assertThat(stored.status()).isEqualTo(204);
+		assertThat(stored.body()).isEmpty();
+	}
+
+	@Test
+	void concurrentDuplicateWaitsForTheFirstAttemptAndReplaysIt() {
+		MockServerWebExchange first = exchange("/api/v1/posts");
+		MockServerWebExchange duplicate = exchange("/api/v1/posts");
+		GatewayFilterChain slowUpstream = exchange -> Mono.delay(Duration.ofMillis(200))
+			.then(Mono.defer(() -> upstream(HttpStatus.CREATED, "created").filter(exchange)));
+
+		Mono.when(filter.filter(first, slowUpstream),
+				Mono.delay(Duration.ofMillis(50)).then(filter.filter(duplicate, upstream(HttpStatus.CREATED, "again"))))
+			.block(Duration.ofSeconds(5));
+
+		assertThat(upstreamCalls).hasValue(1);
+		assertThat(duplicate.getResponse().getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		assertThat(duplicate.getResponse().getHeaders().getFirst(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+		assertThat(duplicate.getResponse().getBodyAsString().block()).isEqualTo("created");
+	}
+
+	@Test
+	void keyReusedForAnotherRequestIsRejected() {
+		filter.filter(exchange("/api/v1/posts"), upstream(HttpStatus.CREATED, "created")).block();
+		MockServerWebExchange other = exchange("/api/v1/posts/42/comments");
+
+		filter.filter(other, upstream(HttpStatus.CREATED, "comment")).block();
+
+		assertThat(other.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+		assertThat(upstreamCalls).hasValue(1);
+	}
+
+	private MockServerWebExchange exchange(String path) {
+		return MockServerWebExchange.from(MockServerHttpRequest.post(path)
+			.header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "key-1")
+			.header("X-User-Id", "user-1")
+			.build());
+	}
+
+	private GatewayFilterChain upstream(HttpStatus status, String... chunks) {
+		return exchange -> {
+			upstreamCalls.incrementAndGet();
+			exchange.getResponse().setStatusCode(status);
+			return exchange.getResponse().writeWith(Flux.fromArray(chunks)
+				.map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8))));
+		};
+	}
+
+	private IdempotencyFilter.StoredResponse stored() throws Exception {
+		assertThat(store).containsKey(REDIS_KEY);
+		return objectMapper.readValue(store.get(REDIS_KEY), IdempotencyFilter.StoredResponse.class);
+	}
+}
@@ -0,0 +1,109 @@
+package com.pawlanet.api.gateway.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import com.pawlanet.api.gateway.config.GatewayProperties;
+
+class MirrorCaptureTest {
+
+	private final GatewayProperties.Mirror settings = new GatewayProperties.Mirror();
+	private final AtomicLong bufferedBytes = new AtomicLong();
+	private final Semaphore inFlight = new Semaphore(2);
+
+	@BeforeEach
+	void setUp() {
+		settings.setMaxBodyBytes(10);
+		settings.setMaxBufferedBytes(15);
+	}
+
+	@Test
+	void capturedBytesAreCountedUntilReleased() {
+		MirrorFilter.MirrorCapture capture = acquire();
+		DataBuffer first = buffer("hello");
+
+		capture.capture(first);
+		capture.capture(buffer(" you"));
+		capture.complete();
+
+		assertThat(first.readableByteCount()).isEqualTo(5);
+		assertThat(capture.isComplete()).isTrue();
+		assertThat(capture.isAborted()).isFalse();
+		assertThat(new String(capture.body(), StandardCharsets.UTF_8)).isEqualTo("hello you");
+		assertThat(bufferedBytes).hasValue(9);
+
+		capture.release();
+		capture.release();
+
+		assertThat(bufferedBytes).hasValue(0);
+		assertThat(inFlight.availablePermits()).isEqualTo(2);
+	}
+
+	@Test
+	void oversizedBodyAbortsWithoutTouchingSharedCount() {
+		MirrorFilter.MirrorCapture other = acquire();
+		other.capture(buffer("abc"));
+		MirrorFilter.MirrorCapture capture = acquire();
+
+		capture.capture(buffer("12345678"));
+		capture.capture(buffer("123"));
+
+		assertThat(capture.isAborted()).isTrue();
+		assertThat(bufferedBytes).hasValue(3);
+
+		capture.capture(buffer("1"));
+		capture.release();
+
+		assertThat(bufferedBytes).hasValue(3);
+		assertThat(inFlight.availablePermits()).isEqualTo(1);
+	}
+
+	@Test
+	void sharedBufferCapAbortsOnlyTheCaptureThatHitIt() {
+		MirrorFilter.MirrorCapture other = acquire();
+		other.capture(buffer("1234567890"));
+		MirrorFilter.MirrorCapture capture = acquire();
+
+		capture.capture(buffer("1234"));
+		capture.capture(buffer("12"));
+
+		assertThat(capture.isAborted()).isTrue();
+		assertThat(other.isAborted()).isFalse();
+		assertThat(bufferedBytes).hasValue(10);
+
+		capture.release();
+		other.release();
+
+		assertThat(bufferedBytes).hasValue(0);
+		assertThat(inFlight.availablePermits()).isEqualTo(2);
+	}
+
+	@Test
+	void chunksArrivingAfterReleaseAreIgnored() {
+		MirrorFilter.MirrorCapture capture = acquire();
+		capture.capture(buffer("abc"));
+		capture.release();
+
+		capture.capture(buffer("def"));
+
+		assertThat(capture.isComplete()).isFalse();
+		assertThat(bufferedBytes).hasValue(0);
+	}
+
+	private MirrorFilter.MirrorCapture acquire() {
+		assertThat(inFlight.tryAcquire()).isTrue();
+		return new MirrorFilter.MirrorCapture(settings, bufferedBytes, inFlight);
+	}
+
+	private DataBuffer buffer(String content) {
+		return DefaultDataBufferFactory.sharedInstance.wrap(content.getBytes(StandardCharsets.UTF_8));
+	}
+}
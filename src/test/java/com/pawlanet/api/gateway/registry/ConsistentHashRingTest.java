@@ -0,0 +1,59 @@
+package com.pawlanet.api.gateway.registry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ConsistentHashRingTest {
+
+	private static final int KEYS = 10000;
+
+	@Test
+	void addingAnInstanceOnlyMovesKeysToIt() {
+		List<ServiceRegistry.ServiceInfo> instances = instances(4);
+		ConsistentHashRing before = new ConsistentHashRing(instances, 100);
+		List<ServiceRegistry.ServiceInfo> scaled = new ArrayList<>(instances);
+		scaled.add(instance(4));
+		ConsistentHashRing after = new ConsistentHashRing(scaled, 100);
+
+		int moved = 0;
+		for (int i = 0; i < KEYS; i++) {
+			String key = "user-" + i;
+			ServiceRegistry.ServiceInfo previous = before.select(key, instance -> true);
+			ServiceRegistry.ServiceInfo current = after.select(key, instance -> true);
+			if (!previous.equals(current)) {
+				assertThat(current).isEqualTo(scaled.get(4));
+				moved++;
+			}
+		}
+		// Roughly a fifth of the keys should move to the new instance
+		assertThat(moved).isBetween(KEYS / 10, KEYS * 3 / 10);
+	}
+
+	@Test
+	void rejectedInstanceFallsThroughToNextOnRing() {
+		List<ServiceRegistry.ServiceInfo> instances = instances(3);
+		ConsistentHashRing ring = new ConsistentHashRing(instances, 100);
+		ServiceRegistry.ServiceInfo owner = ring.select("user-42", instance -> true);
+
+		ServiceRegistry.ServiceInfo fallback = ring.select("user-42", instance -> !instance.equals(owner));
+
+		assertThat(fallback).isNotEqualTo(owner);
+		assertThat(ring.select("user-42", instance -> false)).isEqualTo(owner);
+	}
+
+	private List<ServiceRegistry.ServiceInfo> instances(int count) {
+		List<ServiceRegistry.ServiceInfo> instances = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			instances.add(instance(i));
+		}
+		return instances;
+	}
+
+	private ServiceRegistry.ServiceInfo instance(int index) {
+		return new ServiceRegistry.ServiceInfo("user-profile-service", "10.0.0." + (index + 1), 8082);
+	}
+}
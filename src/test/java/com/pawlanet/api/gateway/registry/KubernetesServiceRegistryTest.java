@@ -0,0 +1,160 @@
+package com.pawlanet.api.gateway.registry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.api.model.ServicePort;
+import io.fabric8.kubernetes.api.model.ServicePortBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@EnableKubernetesMockClient(crud = true)
+class KubernetesServiceRegistryTest {
+
+	private static final String NAMESPACE = "pawlanet-apps";
+
+	KubernetesClient client;
+
+	private KubernetesServiceRegistry registry;
+
+	@AfterEach
+	void tearDown() {
+		if (registry != null) {
+			registry.shutdown();
+		}
+	}
+
+	@Test
+	void initialListRegistersApplicationServicesWithAllPorts() {
+		createService("auth-service", "10.0.0.1", port("grpc", 9090), port("http", 8081));
+		createService("redis", "10.0.0.2", port("redis", 6379));
+
+		registry = newRegistry();
+
+		assertThat(registry.getAllServices()).containsOnlyKeys("auth-service");
+		ServiceRegistry.ServiceInfo auth = registry.getService("auth-service");
+		assertThat(auth.getUrl()).isEqualTo("auth-service." + NAMESPACE + ".svc.cluster.local");
+		assertThat(auth.getPort()).isEqualTo(8081);
+		assertThat(auth.getMetadata())
+			.containsEntry("clusterIP", "10.0.0.1")
+			.containsEntry("ports", "grpc:9090,http:8081")
+			.containsKey("uid");
+	}
+
+	@Test
+	void watchEventsAreAppliedAfterDebounce() throws InterruptedException {
+		registry = newRegistry();
+		assertThat(registry.getAllServices()).isEmpty();
+
+		createService("post-service", "10.0.0.3", port("http", 8083));
+		await(() -> registry.getAllServices().containsKey("post-service"));
+
+		client.services().inNamespace(NAMESPACE).withName("post-service").delete();
+		await(() -> !registry.getAllServices().containsKey("post-service"));
+	}
+
+	@Test
+	void resyncKeepsUnchangedEntriesAndTheirState() throws InterruptedException {
+		createService("auth-service", "10.0.0.1", port("http", 8081));
+		registry = newRegistry(200);
+		ServiceRegistry.ServiceInfo auth = registry.getService("auth-service");
+		auth.setEjectedUntil(System.currentTimeMillis() + 60000);
+
+		// Several resync periods deliver the unchanged service again
+		Thread.sleep(1000);
+
+		assertThat(registry.getService("auth-service")).isSameAs(auth);
+		assertThat(registry.getService("auth-service").isEjected()).isTrue();
+
+		client.services().inNamespace(NAMESPACE).withName("auth-service")
+			.edit(service -> new ServiceBuilder(service).editSpec().withPorts(port("http", 9081)).endSpec().build());
+		await(() -> registry.getService("auth-service").getPort() == 9081);
+	}
+
+	@Test
+	void stoppedInformerRestartsAndCatchesUpOnMissedChanges() throws InterruptedException {
+		createService("auth-service", "10.0.0.1", port("http", 8081));
+		registry = newRegistry(60000);
+		SharedIndexInformer<Service> first = registry.getInformer();
+
+		first.stop();
+		// Changes made while disconnected must show up once the informer relists
+		client.services().inNamespace(NAMESPACE).withName("auth-service").delete();
+		createService("post-service", "10.0.0.3", port("http", 8083));
+
+		await(() -> registry.getInformer() != first);
+		await(() -> registry.getAllServices().containsKey("post-service")
+			&& !registry.getAllServices().containsKey("auth-service"));
+
+		// And the restarted informer keeps watching
+		createService("user-profile-service", "10.0.0.2", port("http", 8082));
+		await(() -> registry.getAllServices().containsKey("user-profile-service"));
+	}
+
+	@Test
+	void requestPathLookupsAreTimedPerOperation() {
+		createService("auth-service", "10.0.0.1", port("http", 8081));
+		registry = newRegistry();
+		SimpleMeterRegistry meters = new SimpleMeterRegistry();
+		Metrics.addRegistry(meters);
+		try {
+			registry.getInstances("auth-service");
+			registry.getInstances("auth-service");
+			registry.getAllServices();
+
+			assertThat(lookups(meters, "instances", "found")).isEqualTo(2);
+			assertThat(lookups(meters, "all_services", "found")).isEqualTo(1);
+			assertThat(lookups(meters, "service", "found")).isZero();
+		} finally {
+			Metrics.removeRegistry(meters);
+		}
+	}
+
+	private long lookups(SimpleMeterRegistry meters, String operation, String outcome) {
+		Timer timer = meters.find(RegistryMetrics.LOOKUP_TIMER)
+			.tags("registry", "kubernetes", "operation", operation, "outcome", outcome)
+			.timer();
+		return timer != null ? timer.count() : 0;
+	}
+
+	private KubernetesServiceRegistry newRegistry() {
+		return newRegistry(60000);
+	}
+
+	private KubernetesServiceRegistry newRegistry(long resyncMillis) {
+		KubernetesServiceRegistry serviceRegistry =
+			new KubernetesServiceRegistry(client, NAMESPACE, ".svc.cluster.local", resyncMillis, 50, 100);
+		serviceRegistry.init();
+		return serviceRegistry;
+	}
+
+	private void createService(String name, String clusterIp, ServicePort... ports) {
+		Service service = new ServiceBuilder()
+			.withNewMetadata().withName(name).withNamespace(NAMESPACE).withUid(name + "-uid").endMetadata()
+			.withNewSpec().withClusterIP(clusterIp).withPorts(ports).endSpec()
+			.build();
+		client.services().inNamespace(NAMESPACE).resource(service).create();
+	}
+
+	private ServicePort port(String name, int port) {
+		return new ServicePortBuilder().withName(name).withPort(port).build();
+	}
+
+	private void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+		}
+		assertThat(condition.getAsBoolean()).isTrue();
+	}
+}
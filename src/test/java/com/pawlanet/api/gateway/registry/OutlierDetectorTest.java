@@ -0,0 +1,153 @@
+package com.pawlanet.api.gateway.registry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.pawlanet.api.gateway.config.GatewayProperties;
+
+class OutlierDetectorTest {
+
+	private final StubRegistry registry = new StubRegistry();
+	private final GatewayProperties properties = new GatewayProperties();
+	private OutlierDetector detector;
+
+	@BeforeEach
+	void setUp() {
+		GatewayProperties.OutlierDetection config = properties.getOutlierDetection();
+		config.setConsecutive5xx(5);
+		config.setConsecutiveConnectFailures(3);
+		config.setBaseEjectionMs(1000);
+		config.setMaxEjectionMs(8000);
+		config.setMaxEjectionPercent(50);
+		detector = new OutlierDetector(registry, properties);
+	}
+
+	@Test
+	void consecutive5xxEjectOnlyWithoutSuccessInBetween() {
+		ServiceRegistry.ServiceInfo instance = registry.add("post-service", "10.0.0.1", 8083);
+
+		for (int i = 0; i < 4; i++) {
+			detector.recordResponse("10.0.0.1", 8083, 503, 10);
+		}
+		detector.recordResponse("10.0.0.1", 8083, 200, 10);
+		for (int i = 0; i < 4; i++) {
+			detector.recordResponse("10.0.0.1", 8083, 500, 10);
+		}
+		assertThat(instance.isEjected()).isFalse();
+
+		detector.recordResponse("10.0.0.1", 8083, 500, 10);
+		assertThat(instance.isEjected()).isTrue();
+	}
+
+	@Test
+	void connectFailuresEjectBeforeThe5xxThreshold() {
+		ServiceRegistry.ServiceInfo instance = registry.add("post-service", "10.0.0.1", 8083);
+
+		detector.recordFailure("10.0.0.1", 8083, true);
+		detector.recordFailure("10.0.0.1", 8083, true);
+		assertThat(instance.isEjected()).isFalse();
+
+		detector.recordFailure("10.0.0.1", 8083, true);
+		assertThat(instance.isEjected()).isTrue();
+	}
+
+	@Test
+	void repeatedEjectionsBackOffUpToTheMaximum() {
+		ServiceRegistry.ServiceInfo instance = registry.add("post-service", "10.0.0.1", 8083);
+		List<Long> durations = new ArrayList<>();
+
+		for (int i = 0; i < 5; i++) {
+			instance.setEjectedUntil(0);
+			long before = System.currentTimeMillis();
+			for (int failure = 0; failure < 3; failure++) {
+				detector.recordFailure("10.0.0.1", 8083, true);
+			}
+			// Rounded to whole seconds to absorb the clock moving during the call
+			durations.add(Math.round((instance.getEjectedUntil() - before) / 1000.0) * 1000);
+		}
+
+		assertThat(durations).containsExactly(1000L, 2000L, 4000L, 8000L, 8000L);
+	}
+
+	@Test
+	void ejectionsStopAtMaxEjectionPercent() {
+		List<ServiceRegistry.ServiceInfo> instances = new ArrayList<>();
+		for (int i = 1; i <= 4; i++) {
+			instances.add(registry.add("post-service", "10.0.0." + i, 8083));
+		}
+
+		for (int i = 1; i <= 4; i++) {
+			for (int failure = 0; failure < 3; failure++) {
+				detector.recordFailure("10.0.0." + i, 8083, true);
+			}
+		}
+
+		assertThat(instances).filteredOn(ServiceRegistry.ServiceInfo::isEjected).hasSize(2);
+	}
+
+	@Test
+	void singleInstanceServiceCanStillBeEjected() {
+		ServiceRegistry.ServiceInfo instance = registry.add("image-validation-service", "10.0.0.9", 8084);
+		properties.getOutlierDetection().setMaxEjectionPercent(10);
+
+		for (int failure = 0; failure < 3; failure++) {
+			detector.recordFailure("10.0.0.9", 8084, true);
+		}
+
+		assertThat(instance.isEjected()).isTrue();
+	}
+
+	private static class StubRegistry implements ServiceRegistry {
+		private final Map<String, List<ServiceInfo>> instances = new LinkedHashMap<>();
+
+		ServiceInfo add(String name, String host, int port) {
+			ServiceInfo instance = new ServiceInfo(name, host, port);
+			instances.computeIfAbsent(name, key -> new ArrayList<>()).add(instance);
+			return instance;
+		}
+
+		@Override
+		public ServiceInfo getService(String serviceName) {
+			return instances.get(serviceName).get(0);
+		}
+
+		@Override
+		public Map<String, ServiceInfo> getAllServices() {
+			Map<String, ServiceInfo> services = new LinkedHashMap<>();
+			instances.forEach((name, list) -> services.put(name, list.get(0)));
+			return services;
+		}
+
+		@Override
+		public List<ServiceInfo> getInstances(String serviceName) {
+			return instances.getOrDefault(serviceName, List.of());
+		}
+
+		@Override
+		public void registerService(String name, ServiceInfo serviceInfo) {
+			instances.put(name, new ArrayList<>(List.of(serviceInfo)));
+		}
+
+		@Override
+		public void deregisterService(String name) {
+			instances.remove(name);
+		}
+
+		@Override
+		public boolean isHealthy(String serviceName) {
+			return true;
+		}
+
+		@Override
+		public String getServiceUrl(String serviceName) {
+			return getService(serviceName).getFullUrl();
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package com.pawlanet.api.gateway.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pawlanet.api.gateway.config.GatewayProperties;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class CircuitBreakerStateSyncTest {
+
+	private static final long WAIT_MILLIS = 100;
+
+	private final ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+	@SuppressWarnings("unchecked")
+	private final ReactiveValueOperations<String, String> valueOperations = mock(ReactiveValueOperations.class);
+	private final CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+		.automaticTransitionFromOpenToHalfOpenEnabled(true)
+		.waitDurationInOpenState(Duration.ofMillis(WAIT_MILLIS))
+		.permittedNumberOfCallsInHalfOpenState(3)
+		.build());
+	private final List<String> deletedKeys = new CopyOnWriteArrayList<>();
+	private CircuitBreakerStateSync sync;
+
+	@BeforeEach
+	void setUp() {
+		doReturn(Flux.never()).when(redisTemplate).listenToChannel(anyString());
+		when(redisTemplate.convertAndSend(anyString(), anyString())).thenReturn(Mono.just(1L));
+		when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+		when(redisTemplate.delete(anyString())).thenAnswer(invocation -> {
+			deletedKeys.add(invocation.getArgument(0));
+			return Mono.just(1L);
+		});
+		when(valueOperations.get(anyString())).thenReturn(Mono.just("replica-a"));
+
+		GatewayProperties properties = new GatewayProperties();
+		properties.getCircuitBreakerSync().setInstanceId("replica-a");
+		properties.getCircuitBreakerSync().setProbeLeaseMs(5000);
+		sync = new CircuitBreakerStateSync(registry, redisTemplate, new ObjectMapper(), properties);
+		sync.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		sync.shutdown();
+	}
+
+	@Test
+	void breakerStaysOpenWhileTheProbeLeaseIsPending() throws InterruptedException {
+		when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(Mono.never());
+		CircuitBreaker circuitBreaker = registry.circuitBreaker("post-service");
+
+		circuitBreaker.transitionToOpenState();
+		Thread.sleep(WAIT_MILLIS * 4);
+
+		assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+		verify(valueOperations, atLeastOnce()).setIfAbsent(anyString(), anyString(), any(Duration.class));
+	}
+
+	@Test
+	void lostLeaseKeepsBreakerOpenAndRetries() throws InterruptedException {
+		when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(Mono.just(false));
+		CircuitBreaker circuitBreaker = registry.circuitBreaker("post-service");
+
+		circuitBreaker.transitionToOpenState();
+		Thread.sleep(WAIT_MILLIS * 5);
+
+		assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+		// Another attempt after every wait duration
+		verify(valueOperations, atLeast(2)).setIfAbsent(anyString(), anyString(), any(Duration.class));
+		assertThat(deletedKeys).isEmpty();
+	}
+
+	@Test
+	void wonLeaseMovesToHalfOpenAndReleasesOnClose() throws InterruptedException {
+		when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(Mono.just(true));
+		CircuitBreaker circuitBreaker = registry.circuitBreaker("post-service");
+
+		circuitBreaker.transitionToOpenState();
+		await(() -> circuitBreaker.getState() == CircuitBreaker.State.HALF_OPEN);
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+			circuitBreaker.onSuccess(1, TimeUnit.MILLISECONDS);
+		}
+		assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+		await(() -> deletedKeys.contains("gateway:circuit-breaker:probe:post-service:0"));
+	}
+
+	private void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+		}
+		assertThat(condition.getAsBoolean()).isTrue();
+	}
+}